@@ -5,7 +5,6 @@ import android.app.AlertDialog;
 import android.app.Dialog;
 import android.content.DialogInterface;
 import android.os.Bundle;
-import android.view.LayoutInflater;
 import android.view.View;
 import android.view.animation.AccelerateDecelerateInterpolator;
 import android.view.animation.AccelerateInterpolator;
@@ -18,12 +17,15 @@ import android.view.animation.LinearInterpolator;
 import android.view.animation.OvershootInterpolator;
 import android.widget.Button;
 import android.widget.EditText;
-import android.widget.ImageView;
 import android.widget.Toast;
 
 import com.floatingbuttonmenu.FloatingButtonMenu;
 import com.floatingbuttonmenu.animation.AlphaFloatingButtonAnimationHandler;
 import com.floatingbuttonmenu.animation.FloatingButtonAnimationHandlerBase;
+import com.floatingbuttonmenu.animation.PropertyAlphaFloatingButtonAnimationHandler;
+import com.floatingbuttonmenu.animation.PropertyRotateTranslateAlphaFloatingButtonAnimationHandler;
+import com.floatingbuttonmenu.animation.PropertyRotateTranslateFloatingButtonAnimationHandler;
+import com.floatingbuttonmenu.animation.PropertyTranslateAlphaFloatingButtonAnimationHandler;
 import com.floatingbuttonmenu.animation.RotateTranslateAlphaFloatingButtonAnimationHandler;
 import com.floatingbuttonmenu.animation.RotateTranslateFloatingButtonAnimationHandler;
 import com.floatingbuttonmenu.animation.TranslateAlphaFloatingButtonAnimationHandler;
@@ -33,6 +35,7 @@ public class MainActivity extends Activity {
             R.drawable.composer_place, R.drawable.composer_sleep};
 
     private FloatingButtonAnimationHandlerBase animationHandler;
+    private FloatingButtonAnimationHandlerBase[] animationHandlers;
     private Interpolator openInterpolator;
     private Interpolator closeInterpolator;
     private long duration;
@@ -74,11 +77,12 @@ public class MainActivity extends Activity {
         duration = 500;
         startOffsetChild = 80;
 
-        buildAnimationHandler(new TranslateAlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
+        animationHandlers = new FloatingButtonAnimationHandlerBase[animationList.length];
+        animationHandler = animationHandlers[0] = buildAnimationHandler(new TranslateAlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
     }
 
-    private void buildAnimationHandler(FloatingButtonAnimationHandlerBase.Builder builder) {
-        animationHandler = builder
+    private FloatingButtonAnimationHandlerBase buildAnimationHandler(FloatingButtonAnimationHandlerBase.Builder builder) {
+        return builder
                 .setOpenInterpolator(openInterpolator)
                 .setCloseInterpolator(closeInterpolator)
                 .setDuration(duration)
@@ -88,11 +92,8 @@ public class MainActivity extends Activity {
 
     private void initFloatingLayoutMenu(FloatingButtonMenu menu, int[] itemDrawables) {
         final int itemCount = itemDrawables.length;
-        LayoutInflater inflater = LayoutInflater.from(this);
         for (int i = 0; i < itemCount; i++) {
-            ImageView item = (ImageView) inflater.inflate(R.layout.child_image, floatingButtonMenu, false);
-            item.setImageResource(itemDrawables[i]);
-            menu.addItem(item);
+            menu.addItem(itemDrawables[i]);
         }
     }
 
@@ -116,7 +117,8 @@ public class MainActivity extends Activity {
         }
     }
 
-    private String[] animationList = {"Translate Alpha (Default)", "Rotate Translate", "Rotate Translate Alpha", "Alpha"};
+    private String[] animationList = {"Translate Alpha (Default)", "Rotate Translate", "Rotate Translate Alpha", "Alpha",
+            "Property Translate Alpha", "Property Rotate Translate", "Property Rotate Translate Alpha", "Property Alpha"};
     private String[] openInterpolatorList = {"AccelerateDecelerateInterpolator", "AccelerateInterpolator", "AnticipateInterpolator", "AnticipateOvershootInterpolator", "BounceInterpolator", "DecelerateInterpolator", "OvershootInterpolator (Default)", "Linear"};
     private String[] closeInterpolatorList = {"AccelerateDecelerateInterpolator", "AccelerateInterpolator", "AnticipateInterpolator", "AnticipateOvershootInterpolator", "BounceInterpolator", "DecelerateInterpolator (Default)", "OvershootInterpolator", "Linear"};
 
@@ -194,23 +196,51 @@ public class MainActivity extends Activity {
     }
 
     private void handleOnItemClickForAnimations(int which) {
-        switch (which) {
-            case 0:
-                buildAnimationHandler(new TranslateAlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
-                break;
-            case 1:
-                buildAnimationHandler(new RotateTranslateFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
-                break;
-            case 2:
-                buildAnimationHandler(new RotateTranslateAlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
-                break;
-            case 3:
-                buildAnimationHandler(new AlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
-                break;
+        /*
+        Handlers are cached so that switching back to one reuses it along with the animations it has already built.
+        Only the settings that may have changed in the meantime are applied to it.
+         */
+        if (animationHandlers[which] != null) {
+            applySettings(animationHandlers[which]);
+        } else {
+            switch (which) {
+                case 0:
+                    animationHandlers[which] = buildAnimationHandler(new TranslateAlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
+                    break;
+                case 1:
+                    animationHandlers[which] = buildAnimationHandler(new RotateTranslateFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
+                    break;
+                case 2:
+                    animationHandlers[which] = buildAnimationHandler(new RotateTranslateAlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
+                    break;
+                case 3:
+                    animationHandlers[which] = buildAnimationHandler(new AlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
+                    break;
+                case 4:
+                    animationHandlers[which] = buildAnimationHandler(new PropertyTranslateAlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
+                    break;
+                case 5:
+                    animationHandlers[which] = buildAnimationHandler(new PropertyRotateTranslateFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
+                    break;
+                case 6:
+                    animationHandlers[which] = buildAnimationHandler(new PropertyRotateTranslateAlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
+                    break;
+                case 7:
+                    animationHandlers[which] = buildAnimationHandler(new PropertyAlphaFloatingButtonAnimationHandler.Builder(floatingButtonMenu));
+                    break;
+            }
         }
+        animationHandler = animationHandlers[which];
         floatingButtonMenu.setAnimationHandler(animationHandler);
     }
 
+    private void applySettings(FloatingButtonAnimationHandlerBase handler) {
+        handler.setOpenInterpolator(openInterpolator);
+        handler.setCloseInterpolator(closeInterpolator);
+        handler.setDuration(duration);
+        handler.setStartOffsetBetweenEachChild(startOffsetChild);
+    }
+
     private void handleOnItemClickForInterpolators(boolean open, int which) {
         Interpolator interpolator = null;
         switch (which) {
@@ -241,8 +271,10 @@ public class MainActivity extends Activity {
         }
 
         if (open) {
+            openInterpolator = interpolator;
             animationHandler.setOpenInterpolator(interpolator);
         } else {
+            closeInterpolator = interpolator;
             animationHandler.setCloseInterpolator(interpolator);
         }
     }
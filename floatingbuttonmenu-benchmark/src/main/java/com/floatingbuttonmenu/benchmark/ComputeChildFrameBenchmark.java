@@ -0,0 +1,58 @@
+package com.floatingbuttonmenu.benchmark;
+
+import com.floatingbuttonmenu.core.ArcGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures computing the frame of every child on the arc, both through the cached sin/cos table and through the
+ * uncached path that runs the trigonometry for every call.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class ComputeChildFrameBenchmark {
+
+    private static final int CENTER_X = 1000;
+    private static final int CENTER_Y = 1600;
+    private static final int RADIUS = 300;
+    private static final int CHILD_SIZE = 96;
+
+    @Param({"4", "16", "64", "256", "512"})
+    public int itemCount;
+
+    private ArcGeometry arcGeometry;
+    private int[] frames;
+
+    @Setup
+    public void setUp() {
+        arcGeometry = new ArcGeometry(180.0f, 270.0f);
+        arcGeometry.setChildCount(itemCount);
+        frames = new int[itemCount * ArcGeometry.FRAME_SIZE];
+    }
+
+    @Benchmark
+    public int[] cachedTable() {
+        for (int i = 0; i < itemCount; i++) {
+            arcGeometry.computeChildFrame(i, CENTER_X, CENTER_Y, RADIUS, CHILD_SIZE, CHILD_SIZE, frames, i * ArcGeometry.FRAME_SIZE);
+        }
+        return frames;
+    }
+
+    @Benchmark
+    public int[] uncachedTrig() {
+        for (int i = 0; i < itemCount; i++) {
+            ArcGeometry.computeChildFrame(CENTER_X, CENTER_Y, RADIUS, arcGeometry.getDegrees(i), CHILD_SIZE, CHILD_SIZE,
+                    frames, i * ArcGeometry.FRAME_SIZE);
+        }
+        return frames;
+    }
+}
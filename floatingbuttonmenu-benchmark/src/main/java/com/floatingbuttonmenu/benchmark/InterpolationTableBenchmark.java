@@ -0,0 +1,83 @@
+package com.floatingbuttonmenu.benchmark;
+
+import com.floatingbuttonmenu.core.InterpolationTable;
+import com.floatingbuttonmenu.core.MenuTimeline;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares evaluating an interpolator directly with evaluating it through an InterpolationTable, for one frame of every
+ * child of the menu.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class InterpolationTableBenchmark {
+
+    /**
+     * The cubic bezier curve (0.4, 0) (0.2, 1), evaluated the way a path based interpolator is: by searching the curve
+     * for the input on every call.
+     */
+    private static final MenuTimeline.Easing COSTLY_EASING = new MenuTimeline.Easing() {
+        @Override
+        public float getInterpolation(float input) {
+            float low = 0.0f;
+            float high = 1.0f;
+            for (int i = 0; i < 16; i++) {
+                final float middle = (low + high) / 2;
+                final float x = 3 * middle * (1 - middle) * (1 - middle) * 0.4f + 3 * middle * middle * (1 - middle) * 0.2f + middle * middle * middle;
+                if (x < input) {
+                    low = middle;
+                } else {
+                    high = middle;
+                }
+            }
+            final float t = (low + high) / 2;
+            return 3 * t * t * (1 - t) + t * t * t;
+        }
+    };
+
+    @Param({"4", "16", "64", "256"})
+    public int itemCount;
+
+    private InterpolationTable table;
+    private float frameTime;
+
+    @Setup
+    public void setUp() {
+        table = InterpolationTable.sample(COSTLY_EASING, InterpolationTable.DEFAULT_SEGMENTS);
+    }
+
+    @Benchmark
+    public void direct(Blackhole blackhole) {
+        evaluateFrame(COSTLY_EASING, blackhole);
+    }
+
+    @Benchmark
+    public void lookupTable(Blackhole blackhole) {
+        evaluateFrame(table, blackhole);
+    }
+
+    private void evaluateFrame(MenuTimeline.Easing easing, Blackhole blackhole) {
+        frameTime += 0.01f;
+        if (frameTime > 1.0f) {
+            frameTime = 0.0f;
+        }
+
+        /*
+        Every child is a little behind the previous one, as the stagger offsets do.
+         */
+        for (int i = 0; i < itemCount; i++) {
+            blackhole.consume(easing.getInterpolation(frameTime - i * 0.01f));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.floatingbuttonmenu.benchmark;
+
+import com.floatingbuttonmenu.core.ArcGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Replays the per-child loop of FloatingButtonLayout.onLayout and the frame math done by
+ * FloatingButtonAnimationHandlerBase.getTranslateAnimation, without the android views around them.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class LayoutPassBenchmark {
+
+    private static final int CENTER_X = 1000;
+    private static final int CENTER_Y = 1600;
+    private static final int BUTTON_LEFT = CENTER_X - 75;
+    private static final int BUTTON_TOP = CENTER_Y - 75;
+    private static final int RADIUS = 300;
+    private static final int CHILD_SIZE = 96;
+
+    @Param({"4", "16", "64", "256", "512"})
+    public int itemCount;
+
+    private ArcGeometry arcGeometry;
+    private ArcGeometry ringGeometry;
+    private int[] frame;
+    private boolean expanded;
+
+    @Setup
+    public void setUp() {
+        arcGeometry = new ArcGeometry(180.0f, 270.0f);
+        ringGeometry = new ArcGeometry(180.0f, 270.0f);
+        ringGeometry.setRings(CHILD_SIZE, RADIUS);
+        frame = new int[ArcGeometry.FRAME_SIZE];
+    }
+
+    /**
+     * A layout pass for a toggle: the menu switches state and every child is placed again.
+     */
+    @Benchmark
+    public void toggleLayout(Blackhole blackhole) {
+        expanded = !expanded;
+        layoutChildren(expanded ? RADIUS : 0, blackhole);
+    }
+
+    /**
+     * A layout pass after the arc has changed, which forces the sin/cos table to be rebuilt.
+     */
+    @Benchmark
+    public void arcChangeLayout(Blackhole blackhole) {
+        expanded = !expanded;
+        arcGeometry.setArc(180.0f, expanded ? 270.0f : 260.0f);
+        layoutChildren(RADIUS, blackhole);
+    }
+
+    /**
+     * A layout pass for a toggle with the children spread over rings. The ring assignments are cached, so this should
+     * cost the same as {@link #toggleLayout(Blackhole)}.
+     */
+    @Benchmark
+    public void toggleRingLayout(Blackhole blackhole) {
+        expanded = !expanded;
+        ringGeometry.setChildCount(itemCount);
+
+        for (int i = 0; i < itemCount; i++) {
+            ringGeometry.computeChildFrame(i, CENTER_X, CENTER_Y, expanded ? RADIUS : 0, CHILD_SIZE, CHILD_SIZE, frame, 0);
+            blackhole.consume(frame);
+        }
+    }
+
+    /**
+     * The open translate deltas computed for every child when the menu starts animating.
+     */
+    @Benchmark
+    public void translateDeltas(Blackhole blackhole) {
+        arcGeometry.setChildCount(itemCount);
+
+        for (int i = 0; i < itemCount; i++) {
+            arcGeometry.computeChildFrame(i, CENTER_X, CENTER_Y, RADIUS, CHILD_SIZE, CHILD_SIZE, frame, 0);
+            blackhole.consume(Math.abs(frame[ArcGeometry.LEFT] - BUTTON_LEFT));
+            blackhole.consume(Math.abs(frame[ArcGeometry.TOP] - BUTTON_TOP));
+        }
+    }
+
+    private void layoutChildren(int radius, Blackhole blackhole) {
+        arcGeometry.setChildCount(itemCount);
+
+        for (int i = 0; i < itemCount; i++) {
+            arcGeometry.computeChildFrame(i, CENTER_X, CENTER_Y, radius, CHILD_SIZE, CHILD_SIZE, frame, 0);
+            blackhole.consume(frame);
+        }
+    }
+}
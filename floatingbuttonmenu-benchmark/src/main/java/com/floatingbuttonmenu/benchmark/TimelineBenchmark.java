@@ -0,0 +1,90 @@
+package com.floatingbuttonmenu.benchmark;
+
+import com.floatingbuttonmenu.core.ArcGeometry;
+import com.floatingbuttonmenu.core.MenuTimeline;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Evaluates the transforms of the children through MenuTimeline, which is what a frame of the animation or a scrub of
+ * the menu costs once the android views are taken out.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+public class TimelineBenchmark {
+
+    private static final int RADIUS = 300;
+    private static final int CHILD_SIZE = 96;
+    private static final long DURATION = 500;
+    private static final long START_OFFSET = 80;
+    private static final long FRAME_TIME = 16;
+
+    @Param({"4", "16", "64", "256", "512"})
+    public int itemCount;
+
+    private ArcGeometry arcGeometry;
+    private MenuTimeline timeline;
+    private float[] transforms;
+    private long time;
+
+    @Setup
+    public void setUp() {
+        arcGeometry = new ArcGeometry(180.0f, 270.0f);
+        arcGeometry.setChildCount(itemCount);
+
+        timeline = new MenuTimeline();
+        timeline.setProperties(MenuTimeline.PROPERTY_TRANSLATION | MenuTimeline.PROPERTY_ALPHA | MenuTimeline.PROPERTY_ROTATION);
+        timeline.setDuration(DURATION);
+        timeline.setStartOffsetBetweenEachChild(START_OFFSET);
+        timeline.setOpenEasing(new MenuTimeline.Easing() {
+            @Override
+            public float getInterpolation(float input) {
+                /*
+                The overshoot interpolator the handlers open with by default.
+                 */
+                final float tension = 1.5f;
+                input -= 1.0f;
+                return input * input * ((tension + 1) * input + tension) + 1.0f;
+            }
+        });
+
+        transforms = new float[itemCount * MenuTimeline.STRIDE];
+    }
+
+    /**
+     * A single frame of an open transition, stepping the time by a frame on every call.
+     */
+    @Benchmark
+    public void evaluateFrame(Blackhole blackhole) {
+        time += FRAME_TIME;
+        if (time > timeline.getTotalDuration(arcGeometry)) {
+            time = 0;
+        }
+
+        timeline.evaluate(arcGeometry, RADIUS, CHILD_SIZE, CHILD_SIZE, true, time, transforms);
+        blackhole.consume(transforms);
+    }
+
+    /**
+     * A whole open transition fast-forwarded at 60 frames per second, as a test running on virtual time would do.
+     */
+    @Benchmark
+    public void evaluateTransition(Blackhole blackhole) {
+        final long totalDuration = timeline.getTotalDuration(arcGeometry);
+
+        for (long t = 0; t <= totalDuration; t += FRAME_TIME) {
+            timeline.evaluate(arcGeometry, RADIUS, CHILD_SIZE, CHILD_SIZE, true, t, transforms);
+            blackhole.consume(transforms);
+        }
+    }
+}
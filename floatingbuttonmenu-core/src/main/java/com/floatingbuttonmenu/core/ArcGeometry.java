@@ -0,0 +1,286 @@
+package com.floatingbuttonmenu.core;
+
+/**
+ * <p>Computes the frames of the children placed on the arc of a FloatingButtonMenu.</p>
+ * <p/>
+ * <p>The children are either spread evenly on a single arc, or spread over concentric rings when ring spacing is set
+ * through {@link #setRings(int, int)}. In that case every ring holds as many children as fit along its length, and the
+ * remaining children move on to the next ring outwards.</p>
+ * <p/>
+ * <p>The angle, ring and cosine and sine of every child are cached in a table that is only rebuilt when the arc, the
+ * child count or the rings change, so toggling the menu only replays the stored positions. Frames are written into
+ * caller owned buffers, so laying out or animating the menu does not allocate any objects.</p>
+ */
+public class ArcGeometry {
+
+    /**
+     * Number of ints used by a single frame in a frame buffer.
+     */
+    public static final int FRAME_SIZE = 4;
+
+    public static final int LEFT = 0;
+    public static final int TOP = 1;
+    public static final int RIGHT = 2;
+    public static final int BOTTOM = 3;
+
+    private float mFromDegrees;
+    private float mToDegrees;
+    private int mChildCount;
+
+    private int mRingSpacing;
+    private int mRingBaseRadius;
+    private int mRingCount = 1;
+
+    private float[] mDegrees = new float[0];
+    private float[] mCos = new float[0];
+    private float[] mSin = new float[0];
+    private float[] mRadiusScale = new float[0];
+    private int[] mRing = new int[0];
+
+    private boolean mTableDirty = true;
+
+    public ArcGeometry(float fromDegrees, float toDegrees) {
+        mFromDegrees = fromDegrees;
+        mToDegrees = toDegrees;
+    }
+
+    public void setArc(float fromDegrees, float toDegrees) {
+        if (mFromDegrees == fromDegrees && mToDegrees == toDegrees) {
+            return;
+        }
+
+        mFromDegrees = fromDegrees;
+        mToDegrees = toDegrees;
+        mTableDirty = true;
+    }
+
+    public void setChildCount(int childCount) {
+        if (mChildCount == childCount) {
+            return;
+        }
+
+        mChildCount = childCount;
+        mTableDirty = true;
+    }
+
+    /**
+     * Spreads the children over concentric rings. The first ring lies at {@code baseRadius} and every other ring is
+     * {@code ringSpacing} further out. The spacing is also the room a child takes along a ring, so it is usually the
+     * size of the largest child.
+     *
+     * @param ringSpacing: distance between two rings, or 0 to place every child on a single arc
+     * @param baseRadius:  radius of the innermost ring
+     */
+    public void setRings(int ringSpacing, int baseRadius) {
+        if (ringSpacing <= 0 || baseRadius <= 0) {
+            ringSpacing = 0;
+            baseRadius = 0;
+        }
+        if (mRingSpacing == ringSpacing && mRingBaseRadius == baseRadius) {
+            return;
+        }
+
+        mRingSpacing = ringSpacing;
+        mRingBaseRadius = baseRadius;
+        mTableDirty = true;
+    }
+
+    public int getChildCount() {
+        return mChildCount;
+    }
+
+    public float getFromDegrees() {
+        return mFromDegrees;
+    }
+
+    public float getToDegrees() {
+        return mToDegrees;
+    }
+
+    /**
+     * Returns the degrees at which the child at the given index is placed on the arc.
+     *
+     * @param index: index of the child
+     * @return
+     */
+    public float getDegrees(int index) {
+        ensureTable();
+        return mDegrees[index];
+    }
+
+    /**
+     * @return the number of rings the children are spread over, 1 when they're on a single arc
+     */
+    public int getRingCount() {
+        ensureTable();
+        return mRingCount;
+    }
+
+    /**
+     * @param index: index of the child
+     * @return the ring the child is placed on, 0 being the innermost
+     */
+    public int getRing(int index) {
+        ensureTable();
+        return mRing[index];
+    }
+
+    /**
+     * Returns the ratio between the radius of the child's ring and the radius passed to
+     * {@link #computeChildFrame(int, int, int, int, int, int, int[], int)}, 1 for every child on a single arc.
+     *
+     * @param index: index of the child
+     * @return
+     */
+    public float getRadiusScale(int index) {
+        ensureTable();
+        return mRadiusScale[index];
+    }
+
+    /**
+     * @param radius: the radius of the arc
+     * @return the radius of the outermost ring
+     */
+    public int getOuterRadius(int radius) {
+        ensureTable();
+        return mRingSpacing == 0 ? radius : (int) (radius * (mRingBaseRadius + (mRingCount - 1) * mRingSpacing) / (float) mRingBaseRadius);
+    }
+
+    public float getCos(int index) {
+        ensureTable();
+        return mCos[index];
+    }
+
+    public float getSin(int index) {
+        ensureTable();
+        return mSin[index];
+    }
+
+    /**
+     * Writes the frame that the child at the given index is to be contained in into {@code outFrame}, starting at
+     * {@code offset}. The values are stored in the {@link #LEFT}, {@link #TOP}, {@link #RIGHT}, {@link #BOTTOM} order.
+     *
+     * @param index:       index of the child on the arc
+     * @param centerX:     the x coordinate of the center of the FloatingButton
+     * @param centerY:     the y coordinate of the center of the FloatingButton
+     * @param radius:      the radius of the arc, which is scaled by {@link #getRadiusScale(int)} for children on
+     *                     outer rings
+     * @param childWidth:  width of the child
+     * @param childHeight: height of the child
+     * @param outFrame:    buffer the frame is written into
+     * @param offset:      position in the buffer at which the frame starts
+     */
+    public void computeChildFrame(int index, int centerX, int centerY, int radius, int childWidth, int childHeight,
+                                  int[] outFrame, int offset) {
+        ensureTable();
+
+        final float childRadius = radius * mRadiusScale[index];
+        final float childCenterX = centerX + childRadius * mCos[index];
+        final float childCenterY = centerY + childRadius * mSin[index];
+
+        writeFrame(childCenterX, childCenterY, childWidth, childHeight, outFrame, offset);
+    }
+
+    /**
+     * Same as {@link #computeChildFrame(int, int, int, int, int, int, int[], int)} but for an arbitrary angle. This
+     * does not use the cached table, so it should be avoided on hot paths.
+     *
+     * @param centerX:     the x coordinate of the center of the FloatingButton
+     * @param centerY:     the y coordinate of the center of the FloatingButton
+     * @param radius:      the radius of the arc
+     * @param degrees:     the degrees at which the child is to be placed on the arc
+     * @param childWidth:  width of the child
+     * @param childHeight: height of the child
+     * @param outFrame:    buffer the frame is written into
+     * @param offset:      position in the buffer at which the frame starts
+     */
+    public static void computeChildFrame(int centerX, int centerY, int radius, float degrees, int childWidth, int childHeight,
+                                         int[] outFrame, int offset) {
+        final double radians = Math.toRadians(degrees);
+        final float childCenterX = (float) (centerX + radius * Math.cos(radians));
+        final float childCenterY = (float) (centerY + radius * Math.sin(radians));
+
+        writeFrame(childCenterX, childCenterY, childWidth, childHeight, outFrame, offset);
+    }
+
+    private static void writeFrame(float childCenterX, float childCenterY, int childWidth, int childHeight, int[] outFrame, int offset) {
+        outFrame[offset + LEFT] = (int) (childCenterX - childWidth / 2);
+        outFrame[offset + TOP] = (int) (childCenterY - childHeight / 2);
+        outFrame[offset + RIGHT] = (int) (childCenterX + childWidth / 2);
+        outFrame[offset + BOTTOM] = (int) (childCenterY + childHeight / 2);
+    }
+
+    /**
+     * Rebuilds the table if the arc, the child count or the rings have changed since it was last built. The arrays
+     * are only reallocated when the child count grows past their current capacity.
+     */
+    private void ensureTable() {
+        if (!mTableDirty) {
+            return;
+        }
+
+        final int count = mChildCount;
+        if (mCos.length < count) {
+            mDegrees = new float[count];
+            mCos = new float[count];
+            mSin = new float[count];
+            mRadiusScale = new float[count];
+            mRing = new int[count];
+        }
+
+        if (mRingSpacing == 0) {
+            placeOnRing(0, count, 0, 1.0f, false);
+            mRingCount = 1;
+        } else {
+            placeOnRings(count);
+        }
+
+        for (int i = 0; i < count; i++) {
+            final double radians = Math.toRadians(mDegrees[i]);
+            mCos[i] = (float) Math.cos(radians);
+            mSin[i] = (float) Math.sin(radians);
+        }
+
+        mTableDirty = false;
+    }
+
+    /**
+     * Fills the rings from the inside out. A ring holds as many children as fit along its length with
+     * {@link #mRingSpacing} of room each, both ends of an open arc taking a child.
+     */
+    private void placeOnRings(int count) {
+        final float sweepDegrees = Math.abs(mToDegrees - mFromDegrees);
+        final boolean fullCircle = sweepDegrees >= 360.0f;
+        final double sweepRadians = Math.toRadians(Math.min(sweepDegrees, 360.0f));
+
+        int ring = 0;
+        int placed = 0;
+        while (placed < count) {
+            final int ringRadius = mRingBaseRadius + ring * mRingSpacing;
+            final int length = (int) (sweepRadians * ringRadius / mRingSpacing);
+            final int capacity = Math.max(1, fullCircle ? length : length + 1);
+            final int ringCount = Math.min(capacity, count - placed);
+
+            placeOnRing(placed, ringCount, ring, ringRadius / (float) mRingBaseRadius, fullCircle);
+            placed += ringCount;
+            ring++;
+        }
+        mRingCount = Math.max(1, ring);
+    }
+
+    /**
+     * Spreads {@code ringCount} children starting at {@code start} evenly over the arc. On a full circle the last
+     * child isn't placed on top of the first one.
+     */
+    private void placeOnRing(int start, int ringCount, int ring, float radiusScale, boolean fullCircle) {
+        final int divisions = fullCircle ? ringCount : ringCount - 1;
+        final float step = divisions > 0 ? (mToDegrees - mFromDegrees) / divisions : 0.0f;
+
+        for (int j = 0; j < ringCount; j++) {
+            final int index = start + j;
+            mDegrees[index] = mFromDegrees + j * step;
+            mRing[index] = ring;
+            mRadiusScale[index] = radiusScale;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.floatingbuttonmenu.core;
+
+/**
+ * Helpers for decoding item icons at the size they are shown at rather than at their full size.
+ */
+public final class BitmapSampling {
+
+    private BitmapSampling() {
+    }
+
+    /**
+     * Returns the largest power of two the image can be divided by while both of its sides stay at least as large as
+     * the requested size. Decoders only honour powers of two, so this is the value to pass as the sample size.
+     *
+     * @param width:           width of the full image
+     * @param height:          height of the full image
+     * @param requestedWidth:  width the image is shown at
+     * @param requestedHeight: height the image is shown at
+     * @return
+     */
+    public static int computeSampleSize(int width, int height, int requestedWidth, int requestedHeight) {
+        int sampleSize = 1;
+        if (requestedWidth <= 0 || requestedHeight <= 0) {
+            return sampleSize;
+        }
+
+        while (width / (sampleSize * 2) >= requestedWidth && height / (sampleSize * 2) >= requestedHeight) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+}
@@ -0,0 +1,105 @@
+package com.floatingbuttonmenu.core;
+
+/**
+ * <p>Accumulates the frame timings of a single open or close run of the menu.</p>
+ * <p/>
+ * <p>All values are kept in primitive fields so that recording a frame doesn't allocate. The same instance is reset
+ * and reused for every run, so it should only be read while the run's report is being delivered.</p>
+ */
+public class FrameStats {
+
+    /**
+     * Frames that take longer than this are counted as janky.
+     */
+    public static final long JANK_THRESHOLD_NANOS = 16000000L;
+
+    private long mStartNanos;
+    private long mLastFrameNanos;
+    private long mEndNanos;
+    private long mExpectedDurationNanos;
+
+    private int mFrameCount;
+    private int mJankyFrameCount;
+    private long mWorstFrameNanos;
+
+    /**
+     * Resets the stats and starts a new run.
+     *
+     * @param startNanos:            when the run started, in the {@link System#nanoTime()} time base
+     * @param expectedDurationNanos: how long the run is configured to take
+     */
+    public void start(long startNanos, long expectedDurationNanos) {
+        mStartNanos = startNanos;
+        mLastFrameNanos = startNanos;
+        mEndNanos = startNanos;
+        mExpectedDurationNanos = expectedDurationNanos;
+
+        mFrameCount = 0;
+        mJankyFrameCount = 0;
+        mWorstFrameNanos = 0;
+    }
+
+    /**
+     * Records a frame. The frame time is the time elapsed since the previous frame, or since the start of the run for
+     * the first frame.
+     *
+     * @param frameTimeNanos: the time the frame started rendering, in the {@link System#nanoTime()} time base
+     */
+    public void onFrame(long frameTimeNanos) {
+        final long frameNanos = frameTimeNanos - mLastFrameNanos;
+        mLastFrameNanos = frameTimeNanos;
+        mFrameCount++;
+
+        if (frameNanos > mWorstFrameNanos) {
+            mWorstFrameNanos = frameNanos;
+        }
+        if (frameNanos > JANK_THRESHOLD_NANOS) {
+            mJankyFrameCount++;
+        }
+    }
+
+    /**
+     * Ends the run.
+     *
+     * @param endNanos: when the run ended, in the {@link System#nanoTime()} time base
+     */
+    public void stop(long endNanos) {
+        mEndNanos = endNanos;
+    }
+
+    public int getFrameCount() {
+        return mFrameCount;
+    }
+
+    public long getWorstFrameNanos() {
+        return mWorstFrameNanos;
+    }
+
+    /**
+     * @return the number of frames that took longer than {@link #JANK_THRESHOLD_NANOS}
+     */
+    public int getJankyFrameCount() {
+        return mJankyFrameCount;
+    }
+
+    /**
+     * @return the wall time between the start and the end of the run
+     */
+    public long getTotalNanos() {
+        return mEndNanos - mStartNanos;
+    }
+
+    /**
+     * @return the time the run was configured to take
+     */
+    public long getExpectedDurationNanos() {
+        return mExpectedDurationNanos;
+    }
+
+    /**
+     * @return how much longer than configured the run took, negative if it finished early
+     */
+    public long getOverrunNanos() {
+        return getTotalNanos() - mExpectedDurationNanos;
+    }
+}
@@ -0,0 +1,83 @@
+package com.floatingbuttonmenu.core;
+
+import java.util.Arrays;
+
+/**
+ * <p>An easing curve sampled into a fixed number of evenly spaced points, evaluated by interpolating linearly between
+ * the two samples around the input. Evaluating it costs the same whatever the cost of the sampled curve.</p>
+ * <p/>
+ * <p>Two tables are equal when they hold the same samples, so tables sampled from the same curve can be shared.</p>
+ */
+public final class InterpolationTable implements MenuTimeline.Easing {
+
+    /**
+     * Number of segments the curve is split into by default.
+     */
+    public static final int DEFAULT_SEGMENTS = 256;
+
+    private final float[] mSamples;
+    private final int mSegments;
+    private final int mHashCode;
+
+    private InterpolationTable(float[] samples) {
+        mSamples = samples;
+        mSegments = samples.length - 1;
+        mHashCode = Arrays.hashCode(samples);
+    }
+
+    /**
+     * Samples the easing at {@code segments + 1} evenly spaced inputs from 0 to 1.
+     *
+     * @param easing:   the curve to sample
+     * @param segments: number of segments the curve is split into
+     * @return
+     */
+    public static InterpolationTable sample(MenuTimeline.Easing easing, int segments) {
+        if (segments < 1) {
+            throw new IllegalArgumentException("An interpolation table needs at least one segment");
+        }
+
+        final float[] samples = new float[segments + 1];
+        for (int i = 0; i <= segments; i++) {
+            samples[i] = easing.getInterpolation(i / (float) segments);
+        }
+        return new InterpolationTable(samples);
+    }
+
+    public int getSegments() {
+        return mSegments;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        if (input <= 0.0f) {
+            return mSamples[0];
+        }
+        if (input >= 1.0f) {
+            return mSamples[mSegments];
+        }
+
+        final float position = input * mSegments;
+        final int index = (int) position;
+        final float weight = position - index;
+        return mSamples[index] + (mSamples[index + 1] - mSamples[index]) * weight;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InterpolationTable)) {
+            return false;
+        }
+
+        InterpolationTable that = (InterpolationTable) o;
+        return mHashCode == that.mHashCode && Arrays.equals(mSamples, that.mSamples);
+    }
+
+    @Override
+    public int hashCode() {
+        return mHashCode;
+    }
+}
@@ -0,0 +1,216 @@
+package com.floatingbuttonmenu.core;
+
+/**
+ * <p>Computes the transforms of every child of the menu at a given time of an open or close transition, without
+ * running any animation.</p>
+ * <p/>
+ * <p>It follows the semantics of the animations the handlers build: every child starts after the start offset given by
+ * the {@link StaggerScheduler} and moves between the floating button and its place on the arc over the duration, with
+ * the open or close easing. It fades in or out when {@link #PROPERTY_ALPHA} is animated and spins
+ * {@link #ROTATION_DEGREES} when {@link #PROPERTY_ROTATION} is. Since it is a plain function of time it can fast-forward a transition, validate or
+ * benchmark configurations on a plain JVM, or scrub the menu from a gesture.</p>
+ * <p/>
+ * <p>The transforms are written into a caller owned buffer, {@link #STRIDE} floats per child, so evaluating the
+ * timeline doesn't allocate any objects.</p>
+ */
+public class MenuTimeline {
+
+    public static final int PROPERTY_TRANSLATION = 1;
+    public static final int PROPERTY_ALPHA = 1 << 1;
+    public static final int PROPERTY_ROTATION = 1 << 2;
+
+    /**
+     * Number of floats used by a single child in a transform buffer.
+     */
+    public static final int STRIDE = 4;
+
+    /**
+     * Offset of the child from where it sits when the menu is closed, centered on the floating button. This is the
+     * translation applied by a menu that positions its children by translation.
+     */
+    public static final int TRANSLATION_X = 0;
+    public static final int TRANSLATION_Y = 1;
+
+    /**
+     * Opacity of the child, 0 while the child is hidden.
+     */
+    public static final int ALPHA = 2;
+    public static final int ROTATION = 3;
+
+    /**
+     * Number of ints used by the size of a single child in a size buffer, width first.
+     */
+    public static final int SIZE_STRIDE = 2;
+
+    /**
+     * Degrees a child spins while it opens or closes.
+     */
+    public static final float ROTATION_DEGREES = 1440.0f;
+
+    /**
+     * The easing applied to the progress of a single child, mapping its elapsed fraction of the duration to the
+     * fraction of the way it has moved.
+     */
+    public interface Easing {
+        float getInterpolation(float input);
+    }
+
+    /**
+     * Leaves the progress of a child untouched.
+     */
+    public static final Easing LINEAR = new Easing() {
+        @Override
+        public float getInterpolation(float input) {
+            return input;
+        }
+    };
+
+    private int mProperties;
+    private long mDuration;
+    private long mStartOffsetBetweenEachChild;
+    private StaggerScheduler mStaggerScheduler = StaggerTiming.LINEAR;
+    private Easing mOpenEasing = LINEAR;
+    private Easing mCloseEasing = LINEAR;
+
+    /*
+    Scratch buffer for the collapsed and expanded frames of a child.
+     */
+    private final int[] mFrames = new int[2 * ArcGeometry.FRAME_SIZE];
+
+    /**
+     * @param properties: the properties animated, a combination of {@link #PROPERTY_TRANSLATION},
+     *                    {@link #PROPERTY_ALPHA} and {@link #PROPERTY_ROTATION}
+     */
+    public void setProperties(int properties) {
+        mProperties = properties;
+    }
+
+    public int getProperties() {
+        return mProperties;
+    }
+
+    /**
+     * @param duration: duration of the transition of a single child, in milliseconds
+     */
+    public void setDuration(long duration) {
+        mDuration = duration;
+    }
+
+    public long getDuration() {
+        return mDuration;
+    }
+
+    public void setStartOffsetBetweenEachChild(long startOffsetBetweenEachChild) {
+        mStartOffsetBetweenEachChild = startOffsetBetweenEachChild;
+    }
+
+    public long getStartOffsetBetweenEachChild() {
+        return mStartOffsetBetweenEachChild;
+    }
+
+    /**
+     * @param staggerScheduler: decides when every child starts, {@link StaggerTiming#LINEAR} when null
+     */
+    public void setStaggerScheduler(StaggerScheduler staggerScheduler) {
+        mStaggerScheduler = staggerScheduler != null ? staggerScheduler : StaggerTiming.LINEAR;
+    }
+
+    public StaggerScheduler getStaggerScheduler() {
+        return mStaggerScheduler;
+    }
+
+    public void setOpenEasing(Easing openEasing) {
+        mOpenEasing = openEasing != null ? openEasing : LINEAR;
+    }
+
+    public void setCloseEasing(Easing closeEasing) {
+        mCloseEasing = closeEasing != null ? closeEasing : LINEAR;
+    }
+
+    /**
+     * Returns the time it takes for every child of the geometry to finish its transition.
+     *
+     * @param geometry: the arc, child count and rings of the menu
+     * @return
+     */
+    public long getTotalDuration(ArcGeometry geometry) {
+        return StaggerTiming.getTotalDuration(mStaggerScheduler, geometry, mDuration, mStartOffsetBetweenEachChild);
+    }
+
+    /**
+     * Same as {@link #evaluate(ArcGeometry, int, int[], boolean, long, float[])} for children that all have the same
+     * size.
+     */
+    public void evaluate(ArcGeometry geometry, int radius, int childWidth, int childHeight, boolean expanded, long time,
+                         float[] out) {
+        evaluate(geometry, radius, null, childWidth, childHeight, expanded, time, out);
+    }
+
+    /**
+     * Writes the transforms of every child at the given time of a transition into {@code out}, {@link #STRIDE} floats
+     * per child in the order of the children on the arc. Before the transition starts the children are where they
+     * were before it, and past its end they are at rest in the new state.
+     *
+     * @param geometry:   the arc and child count of the menu
+     * @param radius:     the radius of the arc
+     * @param childSizes: the size of every child, {@link #SIZE_STRIDE} ints per child
+     * @param expanded:   whether the menu is opening or closing
+     * @param time:       time since the transition started, in milliseconds
+     * @param out:        buffer of at least {@code STRIDE * childCount} floats the transforms are written into
+     */
+    public void evaluate(ArcGeometry geometry, int radius, int[] childSizes, boolean expanded, long time, float[] out) {
+        evaluate(geometry, radius, childSizes, 0, 0, expanded, time, out);
+    }
+
+    private void evaluate(ArcGeometry geometry, int radius, int[] childSizes, int childWidth, int childHeight,
+                          boolean expanded, long time, float[] out) {
+        final int count = geometry.getChildCount();
+        final Easing easing = expanded ? mOpenEasing : mCloseEasing;
+        final boolean translation = (mProperties & PROPERTY_TRANSLATION) != 0;
+        final boolean alpha = (mProperties & PROPERTY_ALPHA) != 0;
+        final boolean rotation = (mProperties & PROPERTY_ROTATION) != 0;
+        final int[] frames = mFrames;
+        final int expandedFrame = ArcGeometry.FRAME_SIZE;
+
+        for (int i = 0, offset = 0; i < count; i++, offset += STRIDE) {
+            if (childSizes != null) {
+                childWidth = childSizes[i * SIZE_STRIDE];
+                childHeight = childSizes[i * SIZE_STRIDE + 1];
+            }
+
+            final int index = StaggerTiming.getTransformedIndex(i, count, expanded);
+            final long childTime = time - StaggerTiming.getChildStartOffset(mStaggerScheduler, geometry, index, expanded,
+                    mStartOffsetBetweenEachChild);
+
+            final boolean started = childTime >= 0;
+            final boolean ended = childTime >= mDuration;
+            final float linear = ended ? 1.0f : started ? childTime / (float) mDuration : 0.0f;
+            final float eased = ended ? 1.0f : easing.getInterpolation(linear);
+
+            /*
+            How far the child is from the floating button towards its place on the arc.
+             */
+            final float progress = expanded ? eased : 1.0f - eased;
+
+            geometry.computeChildFrame(i, 0, 0, 0, childWidth, childHeight, frames, 0);
+            geometry.computeChildFrame(i, 0, 0, radius, childWidth, childHeight, frames, expandedFrame);
+            final float deltaX = frames[expandedFrame + ArcGeometry.LEFT] - frames[ArcGeometry.LEFT];
+            final float deltaY = frames[expandedFrame + ArcGeometry.TOP] - frames[ArcGeometry.TOP];
+
+            /*
+            A child that isn't translated is laid out in its new place as soon as the state changes.
+             */
+            final float position = translation ? progress : (expanded ? 1.0f : 0.0f);
+            out[offset + TRANSLATION_X] = deltaX * position;
+            out[offset + TRANSLATION_Y] = deltaY * position;
+
+            /*
+            An opening child is hidden until it starts, and a closing one once it ends.
+             */
+            final boolean hidden = expanded ? !started : ended;
+            out[offset + ALPHA] = hidden ? 0.0f : alpha ? progress : 1.0f;
+
+            out[offset + ROTATION] = rotation && started && !ended ? ROTATION_DEGREES * eased : 0.0f;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.floatingbuttonmenu.core;
+
+/**
+ * <p>Decides when every child of the menu starts animating relative to the first one.</p>
+ * <p/>
+ * <p>Implementations should compute the offset of a single child in constant time, since it's asked for every child
+ * on every toggle. The offsets are expected not to decrease with the index, so that the last child is the last one to
+ * start. {@link StaggerTiming} holds the built in strategies.</p>
+ */
+public interface StaggerScheduler {
+
+    /**
+     * Returns the start offset of a child.
+     *
+     * @param index:                       the transformed index of the child, 0 being the first child to start
+     * @param count:                       number of children
+     * @param ring:                        the ring of the child in the order the rings start, 0 being the first ring
+     *                                     to start
+     * @param ringCount:                   number of rings, 1 when the children are on a single arc
+     * @param startOffsetBetweenEachChild: the delay between two consecutive children set on the animation handler
+     * @return the start offset in milliseconds
+     */
+    long getStartOffset(int index, int count, int ring, int ringCount, long startOffsetBetweenEachChild);
+}
@@ -0,0 +1,160 @@
+package com.floatingbuttonmenu.core;
+
+/**
+ * Timing helpers for staggering the animations of the children of the menu, along with the built in
+ * {@link StaggerScheduler} strategies.
+ */
+public final class StaggerTiming {
+
+    /**
+     * Starts every child {@code startOffsetBetweenEachChild} after the previous one, so the time the menu takes to
+     * open grows with the number of children.
+     */
+    public static final StaggerScheduler LINEAR = new StaggerScheduler() {
+        @Override
+        public long getStartOffset(int index, int count, int ring, int ringCount, long startOffsetBetweenEachChild) {
+            return getChildStartOffset(index, startOffsetBetweenEachChild);
+        }
+    };
+
+    /**
+     * Starts every ring of children {@code startOffsetBetweenEachChild} after the previous one, all the children on a
+     * ring starting together. The children of a single arc all start at once.
+     */
+    public static final StaggerScheduler RING_GROUPED = new StaggerScheduler() {
+        @Override
+        public long getStartOffset(int index, int count, int ring, int ringCount, long startOffsetBetweenEachChild) {
+            return ring * startOffsetBetweenEachChild;
+        }
+    };
+
+    private StaggerTiming() {
+    }
+
+    /**
+     * Returns a scheduler that staggers the children linearly, but shortens the delay between two children so that
+     * the last one never starts more than {@code maxTotalOffset} after the first. The offsets are spread over the cap
+     * rather than rounded to a whole step, so they keep increasing however many children there are.
+     *
+     * @param maxTotalOffset: the largest start offset of any child, in milliseconds
+     * @return
+     */
+    public static StaggerScheduler cappedTotal(final long maxTotalOffset) {
+        return new StaggerScheduler() {
+            @Override
+            public long getStartOffset(int index, int count, int ring, int ringCount, long startOffsetBetweenEachChild) {
+                if (count <= 1) {
+                    return 0;
+                }
+                return Math.min(getChildStartOffset(index, startOffsetBetweenEachChild),
+                        index * maxTotalOffset / (count - 1));
+            }
+        };
+    }
+
+    /**
+     * Returns a scheduler that spreads the start of the children along an ease out curve: the first children start
+     * apart from each other, and the delays shrink towards the last one. The last child starts at the smaller of
+     * {@code maxTotalOffset} and the offset it would have when staggered linearly.
+     *
+     * @param maxTotalOffset: the largest start offset of any child, in milliseconds
+     * @return
+     */
+    public static StaggerScheduler easeDistributed(final long maxTotalOffset) {
+        return new StaggerScheduler() {
+            @Override
+            public long getStartOffset(int index, int count, int ring, int ringCount, long startOffsetBetweenEachChild) {
+                if (count <= 1) {
+                    return 0;
+                }
+                final long totalOffset = Math.min(maxTotalOffset, getChildStartOffset(count - 1, startOffsetBetweenEachChild));
+                final float remaining = 1.0f - index / (float) (count - 1);
+                return (long) (totalOffset * (1.0f - remaining * remaining));
+            }
+        };
+    }
+
+    /**
+     * Returns the start offset of a child.
+     *
+     * @param index:                       the transformed index of the child
+     * @param startOffsetBetweenEachChild: the delay between two consecutive children
+     * @return
+     */
+    public static long getChildStartOffset(int index, long startOffsetBetweenEachChild) {
+        return index * startOffsetBetweenEachChild;
+    }
+
+    /**
+     * Returns the start offset of a child with the given scheduler, working out the ring of the child from the
+     * geometry. When closing the outermost ring starts first.
+     *
+     * @param scheduler:                   decides the start offset
+     * @param geometry:                    the arc, child count and rings of the menu
+     * @param index:                       the transformed index of the child
+     * @param expanded:                    whether the menu is opening or closing
+     * @param startOffsetBetweenEachChild: the delay between two consecutive children
+     * @return
+     */
+    public static long getChildStartOffset(StaggerScheduler scheduler, ArcGeometry geometry, int index, boolean expanded,
+                                           long startOffsetBetweenEachChild) {
+        final int count = geometry.getChildCount();
+        final int ringCount = geometry.getRingCount();
+
+        int ring = 0;
+        if (ringCount > 1 && index < count) {
+            ring = geometry.getRing(getTransformedIndex(index, count, expanded));
+            if (!expanded) {
+                ring = ringCount - ring - 1;
+            }
+        }
+
+        return scheduler.getStartOffset(index, count, ring, ringCount, startOffsetBetweenEachChild);
+    }
+
+    /**
+     * Returns the transformed index based on whether the layout is opening or closing. If opening the normal index is returned,
+     * if closing we reverse the index.
+     *
+     * @param actualIndex
+     * @param count
+     * @param expanded
+     * @return
+     */
+    public static int getTransformedIndex(int actualIndex, int count, boolean expanded) {
+        return expanded ? actualIndex : count - actualIndex - 1;
+    }
+
+    /**
+     * Returns the time it takes for all the children to finish animating.
+     *
+     * @param count:                       number of children
+     * @param duration:                    duration of the animation of a single child
+     * @param startOffsetBetweenEachChild: the delay between two consecutive children
+     * @return
+     */
+    public static long getTotalDuration(int count, long duration, long startOffsetBetweenEachChild) {
+        if (count <= 0) {
+            return 0;
+        }
+        return getChildStartOffset(count - 1, startOffsetBetweenEachChild) + duration;
+    }
+
+    /**
+     * Returns the time it takes for all the children of the geometry to finish animating with the given scheduler.
+     *
+     * @param scheduler:                   decides the start offsets
+     * @param geometry:                    the arc, child count and rings of the menu
+     * @param duration:                    duration of the animation of a single child
+     * @param startOffsetBetweenEachChild: the delay between two consecutive children
+     * @return
+     */
+    public static long getTotalDuration(StaggerScheduler scheduler, ArcGeometry geometry, long duration,
+                                        long startOffsetBetweenEachChild) {
+        final int count = geometry.getChildCount();
+        if (count <= 0) {
+            return 0;
+        }
+        return getChildStartOffset(scheduler, geometry, count - 1, true, startOffsetBetweenEachChild) + duration;
+    }
+}
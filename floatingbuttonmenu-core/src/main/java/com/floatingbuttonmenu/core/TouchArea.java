@@ -0,0 +1,158 @@
+package com.floatingbuttonmenu.core;
+
+/**
+ * <p>The area covered by the menu, used to find out whether a touch landed outside of it.</p>
+ * <p/>
+ * <p>The area is made of the floating button and, while the menu is open, the frames of the children along with the
+ * annular sector that covers their rings. Everything is computed up front whenever the layout, radius, arc or state of the
+ * menu changes, so that {@link #contains(int, int)} doesn't allocate or look anything up.</p>
+ */
+public class TouchArea {
+
+    private static final float FULL_CIRCLE = 360.0f;
+
+    private int mButtonLeft;
+    private int mButtonTop;
+    private int mButtonRight;
+    private int mButtonBottom;
+
+    private boolean mExpanded;
+
+    private float mCenterX;
+    private float mCenterY;
+    private float mInnerRadiusSquared;
+    private float mOuterRadiusSquared;
+    private float mStartDegrees;
+    private float mSweepDegrees;
+
+    private int[] mChildFrames = new int[0];
+    private int mChildCount;
+
+    /**
+     * Sets the frame of the floating button.
+     *
+     * @param left:    x coordinate of the top left corner of the floating button
+     * @param top:     y coordinate of the top left corner of the floating button
+     * @param width:   width of the floating button
+     * @param height:  height of the floating button
+     * @param padding: extra padding added on every side
+     */
+    public void setButton(int left, int top, int width, int height, int padding) {
+        mButtonLeft = left - padding;
+        mButtonTop = top - padding;
+        mButtonRight = left + width + padding;
+        mButtonBottom = top + height + padding;
+    }
+
+    /**
+     * Shrinks the area to the floating button.
+     */
+    public void setCollapsed() {
+        mExpanded = false;
+        mChildCount = 0;
+    }
+
+    /**
+     * Grows the area to the open arc. The frames of the children must be written into the buffer returned by
+     * {@link #getChildFrames(int)} before or after this call.
+     *
+     * @param centerX:        x coordinate of the center of the floating button
+     * @param centerY:        y coordinate of the center of the floating button
+     * @param radius:         radius of the arc, or of the innermost ring
+     * @param outerRadius:    radius of the outermost ring, the same as {@code radius} for a single arc
+     * @param fromDegrees:    start of the arc
+     * @param toDegrees:      end of the arc
+     * @param childHalfSize:  half the size of the largest child
+     * @param padding:        extra padding added around the children
+     */
+    public void setExpanded(int centerX, int centerY, int radius, int outerRadius, float fromDegrees, float toDegrees,
+                            int childHalfSize, int padding) {
+        mExpanded = true;
+        mCenterX = centerX;
+        mCenterY = centerY;
+
+        final float halfBand = childHalfSize + padding;
+        final float innerBandRadius = Math.max(0.0f, radius - halfBand);
+        final float outerBandRadius = outerRadius + halfBand;
+        mInnerRadiusSquared = innerBandRadius * innerBandRadius;
+        mOuterRadiusSquared = outerBandRadius * outerBandRadius;
+
+        /*
+        The sector is widened on both ends by the angle the children span at the innermost radius, which is the widest.
+         */
+        final float halfAngle = radius > halfBand ? (float) Math.toDegrees(Math.asin(halfBand / radius)) : FULL_CIRCLE / 2;
+        final float sweep = Math.abs(toDegrees - fromDegrees) + 2 * halfAngle;
+
+        mStartDegrees = normalizeDegrees(Math.min(fromDegrees, toDegrees) - halfAngle);
+        mSweepDegrees = Math.min(sweep, FULL_CIRCLE);
+    }
+
+    /**
+     * Returns the buffer that the padded frames of the children are written into, in the {@link ArcGeometry#LEFT},
+     * {@link ArcGeometry#TOP}, {@link ArcGeometry#RIGHT}, {@link ArcGeometry#BOTTOM} order. It is only reallocated when
+     * the child count grows past its capacity.
+     *
+     * @param childCount: number of children
+     * @return
+     */
+    public int[] getChildFrames(int childCount) {
+        final int size = childCount * ArcGeometry.FRAME_SIZE;
+        if (mChildFrames.length < size) {
+            mChildFrames = new int[size];
+        }
+        mChildCount = childCount;
+        return mChildFrames;
+    }
+
+    /**
+     * Returns whether the point lies within the area.
+     *
+     * @param x
+     * @param y
+     * @return
+     */
+    public boolean contains(int x, int y) {
+        if (contains(mButtonLeft, mButtonTop, mButtonRight, mButtonBottom, x, y)) {
+            return true;
+        }
+
+        if (!mExpanded) {
+            return false;
+        }
+
+        final int[] frames = mChildFrames;
+        for (int i = 0, offset = 0; i < mChildCount; i++, offset += ArcGeometry.FRAME_SIZE) {
+            if (contains(frames[offset + ArcGeometry.LEFT], frames[offset + ArcGeometry.TOP],
+                    frames[offset + ArcGeometry.RIGHT], frames[offset + ArcGeometry.BOTTOM], x, y)) {
+                return true;
+            }
+        }
+
+        return isInSector(x, y);
+    }
+
+    private boolean isInSector(int x, int y) {
+        final float dx = x - mCenterX;
+        final float dy = y - mCenterY;
+        final float distanceSquared = dx * dx + dy * dy;
+
+        if (distanceSquared < mInnerRadiusSquared || distanceSquared > mOuterRadiusSquared) {
+            return false;
+        }
+        if (mSweepDegrees >= FULL_CIRCLE) {
+            return true;
+        }
+
+        final float degrees = (float) Math.toDegrees(Math.atan2(dy, dx));
+        return normalizeDegrees(degrees - mStartDegrees) <= mSweepDegrees;
+    }
+
+    private static boolean contains(int left, int top, int right, int bottom, int x, int y) {
+        return left < right && top < bottom && x >= left && x < right && y >= top && y < bottom;
+    }
+
+    private static float normalizeDegrees(float degrees) {
+        degrees %= FULL_CIRCLE;
+        return degrees < 0 ? degrees + FULL_CIRCLE : degrees;
+    }
+}
@@ -0,0 +1,136 @@
+package com.floatingbuttonmenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ArcGeometryTest {
+
+    private static final float EPSILON = 1e-6f;
+
+    @Test
+    public void spreadsChildrenEvenlyOverTheArc() {
+        ArcGeometry geometry = new ArcGeometry(180.0f, 270.0f);
+        geometry.setChildCount(3);
+
+        assertEquals(180.0f, geometry.getDegrees(0), EPSILON);
+        assertEquals(225.0f, geometry.getDegrees(1), EPSILON);
+        assertEquals(270.0f, geometry.getDegrees(2), EPSILON);
+        assertEquals(1, geometry.getRingCount());
+    }
+
+    @Test
+    public void placesASingleChildAtTheStartOfTheArc() {
+        ArcGeometry geometry = new ArcGeometry(180.0f, 270.0f);
+        geometry.setChildCount(1);
+
+        assertEquals(180.0f, geometry.getDegrees(0), EPSILON);
+    }
+
+    @Test
+    public void cachesTheCosineAndSineOfEveryChild() {
+        ArcGeometry geometry = new ArcGeometry(-30.0f, 250.0f);
+        geometry.setChildCount(8);
+
+        for (int i = 0; i < 8; i++) {
+            final double radians = Math.toRadians(geometry.getDegrees(i));
+            assertEquals(Math.cos(radians), geometry.getCos(i), EPSILON);
+            assertEquals(Math.sin(radians), geometry.getSin(i), EPSILON);
+        }
+    }
+
+    @Test
+    public void rebuildsTheTableWhenTheArcOrChildCountChanges() {
+        ArcGeometry geometry = new ArcGeometry(180.0f, 270.0f);
+        geometry.setChildCount(2);
+        assertEquals(270.0f, geometry.getDegrees(1), EPSILON);
+        assertEquals(-1.0f, geometry.getSin(1), EPSILON);
+
+        geometry.setArc(0.0f, 90.0f);
+        assertEquals(90.0f, geometry.getDegrees(1), EPSILON);
+        assertEquals(1.0f, geometry.getSin(1), EPSILON);
+
+        geometry.setChildCount(3);
+        assertEquals(45.0f, geometry.getDegrees(1), EPSILON);
+        assertEquals(90.0f, geometry.getDegrees(2), EPSILON);
+    }
+
+    @Test
+    public void computesTheFrameOfAChildAroundTheCenter() {
+        ArcGeometry geometry = new ArcGeometry(180.0f, 270.0f);
+        geometry.setChildCount(3);
+        int[] frames = new int[2 * ArcGeometry.FRAME_SIZE];
+
+        geometry.computeChildFrame(0, 500, 500, 100, 40, 20, frames, 0);
+        geometry.computeChildFrame(2, 500, 500, 100, 40, 20, frames, ArcGeometry.FRAME_SIZE);
+
+        assertArrayEquals(new int[]{380, 490, 420, 510, 480, 390, 520, 410}, frames);
+    }
+
+    @Test
+    public void matchesTheFrameComputedFromTheAngle() {
+        ArcGeometry geometry = new ArcGeometry(200.0f, 340.0f);
+        geometry.setChildCount(5);
+        int[] cached = new int[ArcGeometry.FRAME_SIZE];
+        int[] computed = new int[ArcGeometry.FRAME_SIZE];
+
+        for (int i = 0; i < 5; i++) {
+            geometry.computeChildFrame(i, 320, 640, 250, 48, 36, cached, 0);
+            ArcGeometry.computeChildFrame(320, 640, 250, geometry.getDegrees(i), 48, 36, computed, 0);
+
+            for (int j = 0; j < ArcGeometry.FRAME_SIZE; j++) {
+                assertTrue("child " + i, Math.abs(cached[j] - computed[j]) <= 1);
+            }
+        }
+    }
+
+    @Test
+    public void fillsRingsUpToTheirCapacity() {
+        ArcGeometry geometry = new ArcGeometry(180.0f, 270.0f);
+        geometry.setRings(50, 100);
+        geometry.setChildCount(10);
+
+        /*
+        A quarter circle of radius 100 is 157 long, which fits 3 spacings of 50 and so 4 children with both ends
+        taken. The next rings, of radius 150 and 200, fit 5 and 7.
+         */
+        assertEquals(3, geometry.getRingCount());
+        assertEquals(0, geometry.getRing(3));
+        assertEquals(1, geometry.getRing(4));
+        assertEquals(1, geometry.getRing(8));
+        assertEquals(2, geometry.getRing(9));
+
+        assertEquals(1.0f, geometry.getRadiusScale(0), EPSILON);
+        assertEquals(1.5f, geometry.getRadiusScale(4), EPSILON);
+        assertEquals(2.0f, geometry.getRadiusScale(9), EPSILON);
+
+        assertEquals(180.0f, geometry.getDegrees(4), EPSILON);
+        assertEquals(270.0f, geometry.getDegrees(8), EPSILON);
+    }
+
+    @Test
+    public void doesNotPlaceTheLastChildOfAFullCircleOnTheFirst() {
+        ArcGeometry geometry = new ArcGeometry(0.0f, 360.0f);
+        geometry.setRings(50, 100);
+        geometry.setChildCount(12);
+
+        assertEquals(1, geometry.getRingCount());
+        assertEquals(0.0f, geometry.getDegrees(0), EPSILON);
+        assertEquals(330.0f, geometry.getDegrees(11), EPSILON);
+    }
+
+    @Test
+    public void outerRadiusIsTheRadiusOfTheOutermostRing() {
+        ArcGeometry geometry = new ArcGeometry(180.0f, 270.0f);
+        geometry.setChildCount(10);
+        assertEquals(300, geometry.getOuterRadius(300));
+
+        geometry.setRings(50, 100);
+        assertEquals(600, geometry.getOuterRadius(300));
+
+        geometry.setChildCount(4);
+        assertEquals(300, geometry.getOuterRadius(300));
+    }
+}
@@ -0,0 +1,110 @@
+package com.floatingbuttonmenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class InterpolationTableTest {
+
+    /**
+     * The curve of the default open interpolator of the handlers, an overshoot with a tension of 1.5.
+     */
+    private static final MenuTimeline.Easing OVERSHOOT = new MenuTimeline.Easing() {
+        @Override
+        public float getInterpolation(float input) {
+            final float tension = 1.5f;
+            input -= 1.0f;
+            return input * input * ((tension + 1) * input + tension) + 1.0f;
+        }
+    };
+
+    private static final MenuTimeline.Easing EASE_IN_OUT = new MenuTimeline.Easing() {
+        @Override
+        public float getInterpolation(float input) {
+            return (float) (Math.cos((input + 1) * Math.PI) / 2.0f) + 0.5f;
+        }
+    };
+
+    /*
+    Linear interpolation over 256 segments keeps the error of these curves around 1e-5, well below what a pixel or an
+    alpha step can show.
+     */
+    private static final float MAX_ERROR = 1e-4f;
+
+    @Test
+    public void hitsTheEndpointsExactly() {
+        for (MenuTimeline.Easing easing : new MenuTimeline.Easing[]{MenuTimeline.LINEAR, OVERSHOOT, EASE_IN_OUT}) {
+            InterpolationTable table = InterpolationTable.sample(easing, InterpolationTable.DEFAULT_SEGMENTS);
+
+            assertEquals(0.0f, table.getInterpolation(0.0f), 0.0f);
+            assertEquals(1.0f, table.getInterpolation(1.0f), 0.0f);
+        }
+    }
+
+    @Test
+    public void clampsInputsOutsideOfTheCurve() {
+        InterpolationTable table = InterpolationTable.sample(OVERSHOOT, InterpolationTable.DEFAULT_SEGMENTS);
+
+        assertEquals(0.0f, table.getInterpolation(-0.5f), 0.0f);
+        assertEquals(0.0f, table.getInterpolation(Float.NEGATIVE_INFINITY), 0.0f);
+        assertEquals(1.0f, table.getInterpolation(1.5f), 0.0f);
+        assertEquals(1.0f, table.getInterpolation(Float.POSITIVE_INFINITY), 0.0f);
+    }
+
+    @Test
+    public void staysCloseToTheSampledCurve() {
+        assertMaxError(MenuTimeline.LINEAR, 1e-6f);
+        assertMaxError(OVERSHOOT, MAX_ERROR);
+        assertMaxError(EASE_IN_OUT, MAX_ERROR);
+    }
+
+    @Test
+    public void keepsTheOvershoot() {
+        InterpolationTable table = InterpolationTable.sample(OVERSHOOT, InterpolationTable.DEFAULT_SEGMENTS);
+
+        float peak = 0.0f;
+        for (int i = 0; i <= 100; i++) {
+            peak = Math.max(peak, table.getInterpolation(i / 100.0f));
+        }
+        assertTrue(peak > 1.0f);
+    }
+
+    @Test
+    public void returnsTheSamplesAtTheirInputs() {
+        InterpolationTable table = InterpolationTable.sample(OVERSHOOT, 4);
+
+        assertEquals(4, table.getSegments());
+        assertEquals(OVERSHOOT.getInterpolation(0.25f), table.getInterpolation(0.25f), 0.0f);
+        assertEquals(OVERSHOOT.getInterpolation(0.5f), table.getInterpolation(0.5f), 0.0f);
+        assertEquals(OVERSHOOT.getInterpolation(0.75f), table.getInterpolation(0.75f), 0.0f);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void needsASegment() {
+        InterpolationTable.sample(MenuTimeline.LINEAR, 0);
+    }
+
+    @Test
+    public void tablesOfTheSameCurveAreEqual() {
+        InterpolationTable table = InterpolationTable.sample(OVERSHOOT, InterpolationTable.DEFAULT_SEGMENTS);
+        InterpolationTable same = InterpolationTable.sample(OVERSHOOT, InterpolationTable.DEFAULT_SEGMENTS);
+
+        assertEquals(table, same);
+        assertEquals(table.hashCode(), same.hashCode());
+        assertFalse(table.equals(InterpolationTable.sample(EASE_IN_OUT, InterpolationTable.DEFAULT_SEGMENTS)));
+        assertFalse(table.equals(InterpolationTable.sample(OVERSHOOT, 128)));
+    }
+
+    private static void assertMaxError(MenuTimeline.Easing easing, float maxError) {
+        InterpolationTable table = InterpolationTable.sample(easing, InterpolationTable.DEFAULT_SEGMENTS);
+
+        float error = 0.0f;
+        for (int i = 0; i <= 10000; i++) {
+            final float input = i / 10000.0f;
+            error = Math.max(error, Math.abs(table.getInterpolation(input) - easing.getInterpolation(input)));
+        }
+        assertTrue("max error " + error, error < maxError);
+    }
+}
@@ -0,0 +1,247 @@
+package com.floatingbuttonmenu.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MenuTimelineTest {
+
+    private static final float EPSILON = 1e-4f;
+
+    private static final int COUNT = 3;
+    private static final int RADIUS = 100;
+    private static final int CHILD_SIZE = 40;
+    private static final long DURATION = 100;
+    private static final long STEP = 50;
+
+    /*
+    One frame at 60 frames per second.
+     */
+    private static final long FRAME = 16;
+
+    private MenuTimeline timeline;
+    private ArcGeometry geometry;
+    private float[] out;
+
+    @Before
+    public void setUp() {
+        timeline = new MenuTimeline();
+        timeline.setProperties(MenuTimeline.PROPERTY_TRANSLATION | MenuTimeline.PROPERTY_ALPHA
+                | MenuTimeline.PROPERTY_ROTATION);
+        timeline.setDuration(DURATION);
+        timeline.setStartOffsetBetweenEachChild(STEP);
+
+        geometry = new ArcGeometry(180.0f, 270.0f);
+        geometry.setChildCount(COUNT);
+        out = new float[COUNT * MenuTimeline.STRIDE];
+    }
+
+    @Test
+    public void startsOpeningFromTheFloatingButton() {
+        evaluate(true, 0);
+
+        for (int i = 0; i < COUNT; i++) {
+            assertChild(i, 0.0f, 0.0f, 0.0f);
+        }
+    }
+
+    @Test
+    public void startsEveryChildAtItsOffsetWhenOpening() {
+        for (int i = 0; i < COUNT; i++) {
+            final long start = i * STEP;
+
+            evaluate(true, start);
+            assertChild(i, 0.0f, 0.0f, 0.0f);
+
+            evaluate(true, start + DURATION / 2);
+            assertChild(i, 0.5f, 0.5f, MenuTimeline.ROTATION_DEGREES / 2);
+
+            evaluate(true, start + DURATION);
+            assertChild(i, 1.0f, 1.0f, 0.0f);
+        }
+    }
+
+    @Test
+    public void hidesAChildUntilItStartsOpening() {
+        evaluate(true, STEP - 1);
+
+        assertEquals(0.0f, out[MenuTimeline.STRIDE + MenuTimeline.ALPHA], EPSILON);
+        assertEquals(0.0f, out[MenuTimeline.STRIDE + MenuTimeline.TRANSLATION_X], EPSILON);
+    }
+
+    @Test
+    public void closesTheLastChildFirst() {
+        evaluate(false, 0);
+        for (int i = 0; i < COUNT; i++) {
+            assertChild(i, 1.0f, 1.0f, 0.0f);
+        }
+
+        for (int i = 0; i < COUNT; i++) {
+            final long start = (COUNT - 1 - i) * STEP;
+
+            evaluate(false, start + DURATION / 2);
+            assertChild(i, 0.5f, 0.5f, MenuTimeline.ROTATION_DEGREES / 2);
+
+            evaluate(false, start + DURATION);
+            assertChild(i, 0.0f, 0.0f, 0.0f);
+        }
+    }
+
+    @Test
+    public void closingMirrorsOpening() {
+        geometry.setChildCount(1);
+        float[] opening = new float[MenuTimeline.STRIDE];
+
+        for (long time = 0; time <= DURATION; time += 10) {
+            timeline.evaluate(geometry, RADIUS, CHILD_SIZE, CHILD_SIZE, true, DURATION - time, opening);
+            timeline.evaluate(geometry, RADIUS, CHILD_SIZE, CHILD_SIZE, false, time, out);
+
+            assertEquals(opening[MenuTimeline.TRANSLATION_X], out[MenuTimeline.TRANSLATION_X], EPSILON);
+            assertEquals(opening[MenuTimeline.TRANSLATION_Y], out[MenuTimeline.TRANSLATION_Y], EPSILON);
+            assertEquals(opening[MenuTimeline.ALPHA], out[MenuTimeline.ALPHA], EPSILON);
+        }
+    }
+
+    @Test
+    public void appliesTheEasingOfTheDirection() {
+        timeline.setOpenEasing(new MenuTimeline.Easing() {
+            @Override
+            public float getInterpolation(float input) {
+                return input * input;
+            }
+        });
+        geometry.setChildCount(1);
+
+        evaluate(true, DURATION / 2);
+        assertChild(0, 0.25f, 0.25f, MenuTimeline.ROTATION_DEGREES / 4);
+
+        evaluate(false, DURATION / 2);
+        assertChild(0, 0.5f, 0.5f, MenuTimeline.ROTATION_DEGREES / 2);
+    }
+
+    @Test
+    public void movesChildrenThatAreNotTranslatedRightAway() {
+        timeline.setProperties(MenuTimeline.PROPERTY_ALPHA);
+
+        evaluate(true, 0);
+        assertEquals(deltaX(0), out[MenuTimeline.TRANSLATION_X], EPSILON);
+        assertEquals(0.0f, out[MenuTimeline.ROTATION], EPSILON);
+
+        evaluate(false, 0);
+        assertEquals(0.0f, out[MenuTimeline.TRANSLATION_X], EPSILON);
+        assertEquals(1.0f, out[MenuTimeline.ALPHA], EPSILON);
+    }
+
+    @Test
+    public void usesTheSizeOfEveryChild() {
+        int[] sizes = {40, 40, 60, 20, 10, 80};
+
+        timeline.evaluate(geometry, RADIUS, sizes, true, 2 * STEP + DURATION, out);
+
+        int[] frames = new int[2 * ArcGeometry.FRAME_SIZE];
+        for (int i = 0; i < COUNT; i++) {
+            final int width = sizes[i * MenuTimeline.SIZE_STRIDE];
+            final int height = sizes[i * MenuTimeline.SIZE_STRIDE + 1];
+            geometry.computeChildFrame(i, 0, 0, 0, width, height, frames, 0);
+            geometry.computeChildFrame(i, 0, 0, RADIUS, width, height, frames, ArcGeometry.FRAME_SIZE);
+
+            assertEquals(frames[ArcGeometry.FRAME_SIZE + ArcGeometry.LEFT] - frames[ArcGeometry.LEFT],
+                    out[i * MenuTimeline.STRIDE + MenuTimeline.TRANSLATION_X], EPSILON);
+            assertEquals(frames[ArcGeometry.FRAME_SIZE + ArcGeometry.TOP] - frames[ArcGeometry.TOP],
+                    out[i * MenuTimeline.STRIDE + MenuTimeline.TRANSLATION_Y], EPSILON);
+        }
+    }
+
+    @Test
+    public void totalDurationMatchesTheStaggerTiming() {
+        assertEquals(2 * STEP + DURATION, timeline.getTotalDuration(geometry));
+
+        StaggerScheduler scheduler = StaggerTiming.cappedTotal(60);
+        timeline.setStaggerScheduler(scheduler);
+        geometry.setChildCount(10);
+        assertEquals(StaggerTiming.getTotalDuration(scheduler, geometry, DURATION, STEP),
+                timeline.getTotalDuration(geometry));
+        assertTrue(timeline.getTotalDuration(geometry) <= 60 + DURATION);
+    }
+
+    @Test
+    public void settlesExactlyAtTheTotalDuration() {
+        final long total = timeline.getTotalDuration(geometry);
+
+        for (long time = 0; time <= total + FRAME; time += FRAME) {
+            evaluate(true, time);
+            assertEquals("open at " + time, time >= total, isAtRest(true));
+
+            evaluate(false, time);
+            assertEquals("closed at " + time, time >= total, isAtRest(false));
+        }
+
+        evaluate(true, total);
+        assertTrue(isAtRest(true));
+        evaluate(true, total - 1);
+        assertFalse(isAtRest(true));
+    }
+
+    @Test
+    public void settlesWithACappedStagger() {
+        timeline.setStaggerScheduler(StaggerTiming.cappedTotal(60));
+        geometry.setChildCount(10);
+        out = new float[10 * MenuTimeline.STRIDE];
+
+        final long total = timeline.getTotalDuration(geometry);
+        evaluate(true, total);
+        assertTrue(isAtRest(true));
+        evaluate(true, total - 1);
+        assertFalse(isAtRest(true));
+    }
+
+    private void evaluate(boolean expanded, long time) {
+        timeline.evaluate(geometry, RADIUS, CHILD_SIZE, CHILD_SIZE, expanded, time, out);
+    }
+
+    /**
+     * Checks the transforms of a child, given the fraction of the way it has moved from the floating button to its
+     * place on the arc.
+     */
+    private void assertChild(int index, float position, float alpha, float rotation) {
+        final int offset = index * MenuTimeline.STRIDE;
+        assertEquals("translation x of " + index, deltaX(index) * position, out[offset + MenuTimeline.TRANSLATION_X],
+                EPSILON);
+        assertEquals("translation y of " + index, deltaY(index) * position, out[offset + MenuTimeline.TRANSLATION_Y],
+                EPSILON);
+        assertEquals("alpha of " + index, alpha, out[offset + MenuTimeline.ALPHA], EPSILON);
+        assertEquals("rotation of " + index, rotation, out[offset + MenuTimeline.ROTATION], EPSILON);
+    }
+
+    private boolean isAtRest(boolean expanded) {
+        final float position = expanded ? 1.0f : 0.0f;
+        for (int i = 0; i < geometry.getChildCount(); i++) {
+            final int offset = i * MenuTimeline.STRIDE;
+            if (out[offset + MenuTimeline.TRANSLATION_X] != deltaX(i) * position
+                    || out[offset + MenuTimeline.TRANSLATION_Y] != deltaY(i) * position
+                    || out[offset + MenuTimeline.ALPHA] != position
+                    || out[offset + MenuTimeline.ROTATION] != 0.0f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private float deltaX(int index) {
+        return delta(index, ArcGeometry.LEFT);
+    }
+
+    private float deltaY(int index) {
+        return delta(index, ArcGeometry.TOP);
+    }
+
+    private float delta(int index, int edge) {
+        int[] frames = new int[2 * ArcGeometry.FRAME_SIZE];
+        geometry.computeChildFrame(index, 0, 0, 0, CHILD_SIZE, CHILD_SIZE, frames, 0);
+        geometry.computeChildFrame(index, 0, 0, RADIUS, CHILD_SIZE, CHILD_SIZE, frames, ArcGeometry.FRAME_SIZE);
+        return frames[ArcGeometry.FRAME_SIZE + edge] - frames[edge];
+    }
+}
@@ -0,0 +1,152 @@
+package com.floatingbuttonmenu.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class StaggerTimingTest {
+
+    private static final long STEP = 80;
+    private static final long DURATION = 500;
+
+    @Test
+    public void linearStartsEveryChildOneStepAfterThePrevious() {
+        ArcGeometry geometry = arc(5);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(i * STEP, StaggerTiming.getChildStartOffset(StaggerTiming.LINEAR, geometry, i, true, STEP));
+            assertEquals(i * STEP, StaggerTiming.getChildStartOffset(StaggerTiming.LINEAR, geometry, i, false, STEP));
+        }
+        assertEquals(4 * STEP + DURATION, StaggerTiming.getTotalDuration(StaggerTiming.LINEAR, geometry, DURATION, STEP));
+        assertEquals(StaggerTiming.getTotalDuration(5, DURATION, STEP),
+                StaggerTiming.getTotalDuration(StaggerTiming.LINEAR, geometry, DURATION, STEP));
+    }
+
+    @Test
+    public void ringGroupedStartsEveryRingTogether() {
+        ArcGeometry geometry = rings(10);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(geometry.getRing(i) * STEP,
+                    StaggerTiming.getChildStartOffset(StaggerTiming.RING_GROUPED, geometry, i, true, STEP));
+        }
+        assertEquals(2 * STEP + DURATION, StaggerTiming.getTotalDuration(StaggerTiming.RING_GROUPED, geometry, DURATION, STEP));
+    }
+
+    @Test
+    public void ringGroupedClosesTheOutermostRingFirst() {
+        ArcGeometry geometry = rings(10);
+
+        /*
+        When closing the transformed index 0 is the last child, which sits alone on the outermost ring.
+         */
+        assertEquals(0, StaggerTiming.getChildStartOffset(StaggerTiming.RING_GROUPED, geometry, 0, false, STEP));
+        assertEquals(STEP, StaggerTiming.getChildStartOffset(StaggerTiming.RING_GROUPED, geometry, 1, false, STEP));
+        assertEquals(2 * STEP, StaggerTiming.getChildStartOffset(StaggerTiming.RING_GROUPED, geometry, 9, false, STEP));
+    }
+
+    @Test
+    public void ringGroupedStartsASingleArcAtOnce() {
+        ArcGeometry geometry = arc(6);
+
+        for (int i = 0; i < 6; i++) {
+            assertEquals(0, StaggerTiming.getChildStartOffset(StaggerTiming.RING_GROUPED, geometry, i, true, STEP));
+        }
+        assertEquals(DURATION, StaggerTiming.getTotalDuration(StaggerTiming.RING_GROUPED, geometry, DURATION, STEP));
+    }
+
+    @Test
+    public void cappedTotalKeepsTheOffsetsWithinTheCap() {
+        final long cap = 200;
+        StaggerScheduler scheduler = StaggerTiming.cappedTotal(cap);
+        ArcGeometry geometry = arc(20);
+
+        assertOffsetsIncreaseWithin(scheduler, geometry, cap);
+        assertTrue(StaggerTiming.getTotalDuration(scheduler, geometry, DURATION, STEP) <= cap + DURATION);
+    }
+
+    @Test
+    public void cappedTotalSpreadsMoreChildrenThanTheCapHasMilliseconds() {
+        final long cap = 200;
+        StaggerScheduler scheduler = StaggerTiming.cappedTotal(cap);
+        ArcGeometry geometry = arc(400);
+
+        assertOffsetsIncreaseWithin(scheduler, geometry, cap);
+        assertEquals(cap, StaggerTiming.getChildStartOffset(scheduler, geometry, 399, true, STEP));
+        assertEquals(cap / 2, StaggerTiming.getChildStartOffset(scheduler, geometry, 200, true, STEP));
+        assertEquals(cap + DURATION, StaggerTiming.getTotalDuration(scheduler, geometry, DURATION, STEP));
+    }
+
+    @Test
+    public void cappedTotalKeepsTheStepBelowTheCap() {
+        StaggerScheduler scheduler = StaggerTiming.cappedTotal(1000);
+        ArcGeometry geometry = arc(3);
+
+        assertEquals(0, StaggerTiming.getChildStartOffset(scheduler, geometry, 0, true, STEP));
+        assertEquals(STEP, StaggerTiming.getChildStartOffset(scheduler, geometry, 1, true, STEP));
+        assertEquals(2 * STEP, StaggerTiming.getChildStartOffset(scheduler, geometry, 2, true, STEP));
+    }
+
+    @Test
+    public void easeDistributedReachesTheCapWithShrinkingDelays() {
+        final long cap = 300;
+        StaggerScheduler scheduler = StaggerTiming.easeDistributed(cap);
+        ArcGeometry geometry = arc(20);
+
+        assertOffsetsIncreaseWithin(scheduler, geometry, cap);
+        assertEquals(cap, StaggerTiming.getChildStartOffset(scheduler, geometry, 19, true, STEP));
+
+        final long firstDelay = StaggerTiming.getChildStartOffset(scheduler, geometry, 1, true, STEP);
+        final long lastDelay = cap - StaggerTiming.getChildStartOffset(scheduler, geometry, 18, true, STEP);
+        assertTrue(firstDelay > lastDelay);
+    }
+
+    @Test
+    public void easeDistributedNeverEndsLaterThanLinear() {
+        StaggerScheduler scheduler = StaggerTiming.easeDistributed(1000);
+        ArcGeometry geometry = arc(3);
+
+        assertEquals(2 * STEP, StaggerTiming.getChildStartOffset(scheduler, geometry, 2, true, STEP));
+    }
+
+    @Test
+    public void startsASingleChildRightAway() {
+        ArcGeometry geometry = arc(1);
+
+        assertEquals(0, StaggerTiming.getChildStartOffset(StaggerTiming.cappedTotal(100), geometry, 0, true, STEP));
+        assertEquals(0, StaggerTiming.getChildStartOffset(StaggerTiming.easeDistributed(100), geometry, 0, true, STEP));
+        assertEquals(0, StaggerTiming.getTotalDuration(StaggerTiming.LINEAR, arc(0), DURATION, STEP));
+    }
+
+    @Test
+    public void reversesTheIndexWhenClosing() {
+        assertEquals(1, StaggerTiming.getTransformedIndex(1, 4, true));
+        assertEquals(2, StaggerTiming.getTransformedIndex(1, 4, false));
+    }
+
+    private static void assertOffsetsIncreaseWithin(StaggerScheduler scheduler, ArcGeometry geometry, long cap) {
+        long previous = 0;
+        for (int i = 0; i < geometry.getChildCount(); i++) {
+            final long offset = StaggerTiming.getChildStartOffset(scheduler, geometry, i, true, STEP);
+            assertTrue("child " + i + " starts before the previous one", offset >= previous);
+            assertTrue("child " + i + " starts after the cap", offset <= cap);
+            previous = offset;
+        }
+    }
+
+    private static ArcGeometry arc(int count) {
+        ArcGeometry geometry = new ArcGeometry(180.0f, 270.0f);
+        geometry.setChildCount(count);
+        return geometry;
+    }
+
+    /**
+     * Rings holding 4, 5 and 7 children, see ArcGeometryTest.
+     */
+    private static ArcGeometry rings(int count) {
+        ArcGeometry geometry = arc(count);
+        geometry.setRings(50, 100);
+        return geometry;
+    }
+}
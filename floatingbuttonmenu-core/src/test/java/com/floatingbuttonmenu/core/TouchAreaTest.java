@@ -0,0 +1,121 @@
+package com.floatingbuttonmenu.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TouchAreaTest {
+
+    /*
+    A 50 by 50 floating button centered on 125, 125.
+     */
+    private static final int BUTTON_LEFT = 100;
+    private static final int BUTTON_TOP = 100;
+    private static final int BUTTON_SIZE = 50;
+    private static final int CENTER = 125;
+
+    private static final int RADIUS = 100;
+    private static final int CHILD_HALF_SIZE = 20;
+
+    private TouchArea touchArea;
+
+    @Before
+    public void setUp() {
+        touchArea = new TouchArea();
+        touchArea.setButton(BUTTON_LEFT, BUTTON_TOP, BUTTON_SIZE, BUTTON_SIZE, 0);
+        touchArea.setCollapsed();
+    }
+
+    @Test
+    public void containsTheButton() {
+        assertTrue(touchArea.contains(BUTTON_LEFT, BUTTON_TOP));
+        assertTrue(touchArea.contains(BUTTON_LEFT + BUTTON_SIZE - 1, BUTTON_TOP + BUTTON_SIZE - 1));
+        assertFalse(touchArea.contains(BUTTON_LEFT + BUTTON_SIZE, BUTTON_TOP));
+        assertFalse(touchArea.contains(BUTTON_LEFT - 1, BUTTON_TOP));
+    }
+
+    @Test
+    public void padsTheButton() {
+        touchArea.setButton(BUTTON_LEFT, BUTTON_TOP, BUTTON_SIZE, BUTTON_SIZE, 10);
+
+        assertTrue(touchArea.contains(BUTTON_LEFT - 10, BUTTON_TOP - 10));
+        assertFalse(touchArea.contains(BUTTON_LEFT - 11, BUTTON_TOP));
+    }
+
+    @Test
+    public void onlyContainsTheButtonWhenCollapsed() {
+        expand(180.0f, 270.0f);
+        touchArea.setCollapsed();
+
+        assertFalse(touchArea.contains(pointX(225.0f, RADIUS), pointY(225.0f, RADIUS)));
+    }
+
+    @Test
+    public void containsTheChildFrames() {
+        expand(180.0f, 270.0f);
+        int[] frames = touchArea.getChildFrames(1);
+        frames[ArcGeometry.LEFT] = 0;
+        frames[ArcGeometry.TOP] = 300;
+        frames[ArcGeometry.RIGHT] = 10;
+        frames[ArcGeometry.BOTTOM] = 310;
+
+        assertTrue(touchArea.contains(5, 305));
+        assertFalse(touchArea.contains(15, 305));
+    }
+
+    @Test
+    public void containsTheAnnularSectorOfTheArc() {
+        expand(180.0f, 270.0f);
+
+        assertTrue(touchArea.contains(pointX(225.0f, RADIUS), pointY(225.0f, RADIUS)));
+        assertTrue(touchArea.contains(pointX(180.0f, RADIUS + CHILD_HALF_SIZE - 1), pointY(180.0f, RADIUS)));
+
+        /*
+        The band is widened by the angle half a child spans at the radius, about 11.5 degrees.
+         */
+        assertTrue(touchArea.contains(pointX(280.0f, RADIUS), pointY(280.0f, RADIUS)));
+        assertFalse(touchArea.contains(pointX(285.0f, RADIUS), pointY(285.0f, RADIUS)));
+    }
+
+    @Test
+    public void doesNotContainPointsOutsideOfTheSector() {
+        expand(180.0f, 270.0f);
+
+        assertFalse("inside the inner radius", touchArea.contains(pointX(225.0f, 40), pointY(225.0f, 40)));
+        assertFalse("past the outer radius", touchArea.contains(pointX(225.0f, 200), pointY(225.0f, 200)));
+        assertFalse("opposite side", touchArea.contains(pointX(45.0f, RADIUS), pointY(45.0f, RADIUS)));
+    }
+
+    @Test
+    public void containsSectorsCrossingZeroDegrees() {
+        expand(-45.0f, 45.0f);
+
+        assertTrue(touchArea.contains(pointX(0.0f, RADIUS), pointY(0.0f, RADIUS)));
+        assertTrue(touchArea.contains(pointX(-40.0f, RADIUS), pointY(-40.0f, RADIUS)));
+        assertFalse(touchArea.contains(pointX(180.0f, RADIUS), pointY(180.0f, RADIUS)));
+    }
+
+    @Test
+    public void containsTheOuterRingsBand() {
+        touchArea.setExpanded(CENTER, CENTER, RADIUS, 2 * RADIUS, 180.0f, 270.0f, CHILD_HALF_SIZE, 0);
+
+        assertTrue(touchArea.contains(pointX(225.0f, 2 * RADIUS), pointY(225.0f, 2 * RADIUS)));
+        assertFalse(touchArea.contains(pointX(225.0f, 2 * RADIUS + CHILD_HALF_SIZE + 2),
+                pointY(225.0f, 2 * RADIUS + CHILD_HALF_SIZE + 2)));
+    }
+
+    private void expand(float fromDegrees, float toDegrees) {
+        touchArea.setExpanded(CENTER, CENTER, RADIUS, RADIUS, fromDegrees, toDegrees, CHILD_HALF_SIZE, 0);
+        touchArea.getChildFrames(0);
+    }
+
+    private static int pointX(float degrees, int distance) {
+        return (int) Math.round(CENTER + distance * Math.cos(Math.toRadians(degrees)));
+    }
+
+    private static int pointY(float degrees, int distance) {
+        return (int) Math.round(CENTER + distance * Math.sin(Math.toRadians(degrees)));
+    }
+}
@@ -0,0 +1,107 @@
+package com.floatingbuttonmenu;
+
+import android.os.SystemClock;
+import android.test.AndroidTestCase;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+
+/**
+ * Taps outside of an open menu that sits on top of a clickable view, and checks whether the gesture reaches that view
+ * in each dismiss mode.
+ */
+public class DismissModeTest extends AndroidTestCase {
+
+    private static final int SIZE = 1000;
+
+    private FrameLayout mParent;
+    private FloatingButtonMenu mMenu;
+    private int mTouchesBelow;
+    private int mLastActionBelow = -1;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+
+        mParent = new FrameLayout(getContext());
+
+        View below = new View(getContext());
+        below.setClickable(true);
+        below.setOnTouchListener(new View.OnTouchListener() {
+            @Override
+            public boolean onTouch(View v, MotionEvent event) {
+                mTouchesBelow++;
+                mLastActionBelow = event.getActionMasked();
+                return false;
+            }
+        });
+        mParent.addView(below, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+
+        mMenu = new FloatingButtonMenu(getContext());
+        /*
+        The scrim fades with an animator, which can't run on the instrumentation thread.
+         */
+        mMenu.setShowBackground(false);
+        mParent.addView(mMenu, new ViewGroup.LayoutParams(ViewGroup.LayoutParams.MATCH_PARENT,
+                ViewGroup.LayoutParams.MATCH_PARENT));
+
+        layout();
+        mMenu.open(false);
+        layout();
+        assertTrue(mMenu.isExpanded());
+    }
+
+    public void testConsumeSwallowsTheDismissingGesture() {
+        mMenu.setDismissMode(FloatingButtonMenu.DISMISS_CONSUME);
+
+        tapOutside();
+
+        assertFalse(mMenu.isExpanded());
+        assertEquals(0, mTouchesBelow);
+    }
+
+    public void testConsumeLetsTheNextGestureThrough() {
+        mMenu.setDismissMode(FloatingButtonMenu.DISMISS_CONSUME);
+
+        tapOutside();
+        layout();
+        tapOutside();
+
+        assertEquals("only the gesture after the dismissing one reaches the view below", 3, mTouchesBelow);
+        assertEquals(MotionEvent.ACTION_UP, mLastActionBelow);
+    }
+
+    public void testTapThroughPassesTheDismissingGesture() {
+        mMenu.setDismissMode(FloatingButtonMenu.DISMISS_TAP_THROUGH);
+
+        tapOutside();
+
+        assertFalse(mMenu.isExpanded());
+        assertEquals("down, move and up reach the view below", 3, mTouchesBelow);
+        assertEquals(MotionEvent.ACTION_UP, mLastActionBelow);
+    }
+
+    private void layout() {
+        final int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        mParent.measure(spec, spec);
+        mParent.layout(0, 0, SIZE, SIZE);
+    }
+
+    /**
+     * Sends a down, a move and an up to the top left corner, away from the floating button in the bottom right one.
+     */
+    private void tapOutside() {
+        final long downTime = SystemClock.uptimeMillis();
+        dispatch(downTime, MotionEvent.ACTION_DOWN, 10);
+        dispatch(downTime, MotionEvent.ACTION_MOVE, 12);
+        dispatch(downTime, MotionEvent.ACTION_UP, 12);
+    }
+
+    private void dispatch(long downTime, int action, float position) {
+        MotionEvent event = MotionEvent.obtain(downTime, SystemClock.uptimeMillis(), action, position, position, 0);
+        mParent.dispatchTouchEvent(event);
+        event.recycle();
+    }
+}
@@ -1,13 +1,20 @@
 package com.floatingbuttonmenu;
 
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
 import android.content.Context;
 import android.graphics.Point;
-import android.graphics.Rect;
 import android.util.AttributeSet;
 import android.view.View;
 import android.view.ViewGroup;
 
 import com.floatingbuttonmenu.animation.FloatingButtonAnimationHandlerBase;
+import com.floatingbuttonmenu.core.ArcGeometry;
+import com.floatingbuttonmenu.core.TouchArea;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 
 class FloatingButtonLayout extends ViewGroup {
 
@@ -15,6 +22,9 @@ class FloatingButtonLayout extends ViewGroup {
     public static final float TO_DEGREES_DEFAULT = 270.0f;
     public static final int DEFAULT_RADIUS = 300;
 
+    private static final long ITEM_CHANGE_DURATION = 200;
+    private static final float INSERTED_ITEM_SCALE = 0.5f;
+
     private int mRadius = DEFAULT_RADIUS;
     private float mFromDegrees = FROM_DEGREES_DEFAULT;
     private float mToDegrees = TO_DEGREES_DEFAULT;
@@ -26,9 +36,26 @@ class FloatingButtonLayout extends ViewGroup {
     private int mFloatingButtonHeight;
 
     private boolean mExpanded;
+    private boolean mHasQueuedState;
+    private boolean mQueuedExpanded;
+    private boolean mQueuedAnimate;
+    private boolean mRingLayout;
+    private boolean mPositionByTranslation;
+
+    private ArcGeometry mArcGeometry;
+    private int[] mChildFrame;
+    private TouchArea mTouchArea;
+    private int mTouchAreaPadding;
 
     private FloatingButtonAnimationHandlerBase mAnimationHandler;
 
+    /*
+    Items changed by setItems that still have to be animated once they've been laid out in their new place, and the
+    item changes currently animating.
+     */
+    private final IdentityHashMap<View, ItemChange> mPendingItemChanges = new IdentityHashMap<View, ItemChange>();
+    private final ArrayList<ItemChange> mRunningItemChanges = new ArrayList<ItemChange>();
+
     public FloatingButtonLayout(Context context, AttributeSet attrs) {
         super(context, attrs);
         init();
@@ -42,6 +69,11 @@ class FloatingButtonLayout extends ViewGroup {
     private void init() {
         mFloatingButtonCenter = new Point(0, 0);
         mFloatingButtonTopCornerCoor = new Point(0, 0);
+
+        mArcGeometry = new ArcGeometry(mFromDegrees, mToDegrees);
+        mChildFrame = new int[ArcGeometry.FRAME_SIZE];
+        mTouchArea = new TouchArea();
+        mTouchAreaPadding = getResources().getDimensionPixelOffset(R.dimen.floating_button_layout_additional_padding);
     }
 
     @Override
@@ -56,44 +88,98 @@ class FloatingButtonLayout extends ViewGroup {
 
     @Override
     protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        layoutChildren();
+    }
 
+    /**
+     * Places every child for the current state. This is also called directly when the floating button moves, since
+     * that happens while the parent is being laid out.
+     */
+    private void layoutChildren() {
         final int centerX = mFloatingButtonCenter.x;
         final int centerY = mFloatingButtonCenter.y;
 
-        final int radius = mExpanded ? mRadius : 0;
+        /*
+        When positioning by translation the children are always laid out at the center, and moved onto the arc by
+        applyChildTranslations.
+         */
+        final int radius = mExpanded && !mPositionByTranslation ? mRadius : 0;
 
         final int childCount = getChildCount();
+        mArcGeometry.setChildCount(childCount);
+        updateRings();
 
-        final float degreesPerChild = (mToDegrees - mFromDegrees) / (childCount - 1);
-
-        float degrees = mFromDegrees;
+        final int[] frame = mChildFrame;
 
         for (int i = 0; i < childCount; i++) {
             View v = getChildAt(i);
 
-            Rect childFrame = FloatingButtonMenu.computeChildFrame(centerX, centerY, radius, degrees, v.getMeasuredWidth(), v.getMeasuredHeight());
-            getChildAt(i).layout(childFrame.left, childFrame.top, childFrame.right, childFrame.bottom);
+            mArcGeometry.computeChildFrame(i, centerX, centerY, radius, v.getMeasuredWidth(), v.getMeasuredHeight(), frame, 0);
+            v.layout(frame[ArcGeometry.LEFT], frame[ArcGeometry.TOP], frame[ArcGeometry.RIGHT], frame[ArcGeometry.BOTTOM]);
+        }
+
+        if (mPositionByTranslation) {
+            applyChildTranslations();
+        }
+        updateTouchArea();
 
-            degrees += degreesPerChild;
+        if (!mPendingItemChanges.isEmpty()) {
+            startItemChanges();
         }
     }
 
     public void toggleState(boolean animate) {
-        setState(!mExpanded, animate);
+        setState(!(mHasQueuedState ? mQueuedExpanded : mExpanded), animate);
     }
 
+    /**
+     * Changes the state of the menu. A reversible animation handler turns a running transition around, otherwise the
+     * change is queued until the running animation ends, see {@link #applyQueuedState()}. Only the latest request is
+     * kept, so quick successive toggles are coalesced.
+     *
+     * @param expanded
+     * @param animate
+     */
     public void setState(boolean expanded, boolean animate) {
-        if (mAnimationHandler.isAnimating() || mExpanded == expanded) {
+        if (mAnimationHandler.isAnimating() && !mAnimationHandler.isReversible()) {
+            mHasQueuedState = true;
+            mQueuedExpanded = expanded;
+            mQueuedAnimate = animate;
             return;
         }
 
+        mHasQueuedState = false;
+        if (mExpanded == expanded) {
+            return;
+        }
+
+        endItemChanges();
         mExpanded = expanded;
 
         if (animate) {
             mAnimationHandler.animateMenu();
         }
 
-        requestLayout();
+        onPositionsChanged();
+    }
+
+    /**
+     * Starts the state change queued while the animation handler was animating, if it differs from the current state.
+     *
+     * @return true if a new transition was started
+     */
+    boolean applyQueuedState() {
+        if (!mHasQueuedState) {
+            return false;
+        }
+
+        mHasQueuedState = false;
+        if (mQueuedExpanded == mExpanded) {
+            return false;
+        }
+
+        setState(mQueuedExpanded, mQueuedAnimate);
+        return mQueuedAnimate;
     }
 
     public void setArc(float fromDegrees, float toDegrees) {
@@ -103,8 +189,9 @@ class FloatingButtonLayout extends ViewGroup {
 
         mFromDegrees = fromDegrees;
         mToDegrees = toDegrees;
+        mArcGeometry.setArc(fromDegrees, toDegrees);
 
-        requestLayout();
+        onPositionsChanged();
     }
 
     public void setRadius(int radius) {
@@ -113,10 +200,329 @@ class FloatingButtonLayout extends ViewGroup {
         }
 
         mRadius = radius;
+        updateRings();
+
+        onPositionsChanged();
+    }
+
+    /**
+     * Places the children for the current state, radius and arc. When positioning by translation only the render
+     * properties of the children change, otherwise a layout pass is requested.
+     */
+    private void onPositionsChanged() {
+        if (mPositionByTranslation) {
+            applyChildTranslations();
+            updateTouchArea();
+        } else {
+            requestLayout();
+        }
+    }
+
+    /**
+     * Moves every child from the center, where it is laid out, to its place for the current state through its
+     * translation. Nothing is done while the animation handler is animating the translation itself, since it ends at
+     * the same values.
+     */
+    private void applyChildTranslations() {
+        if (mAnimationHandler != null && mAnimationHandler.isAnimating() && mAnimationHandler.animatesChildTranslation()) {
+            return;
+        }
+
+        final int centerX = mFloatingButtonCenter.x;
+        final int centerY = mFloatingButtonCenter.y;
+        final int radius = mExpanded ? mRadius : 0;
+        final int[] frame = mChildFrame;
+
+        for (int i = 0, childCount = getChildCount(); i < childCount; i++) {
+            View v = getChildAt(i);
+
+            mArcGeometry.computeChildFrame(i, centerX, centerY, radius, v.getMeasuredWidth(), v.getMeasuredHeight(), frame, 0);
+            v.setTranslationX(frame[ArcGeometry.LEFT] - v.getLeft());
+            v.setTranslationY(frame[ArcGeometry.TOP] - v.getTop());
+        }
+    }
+
+    /**
+     * Lays the children out once at the center of the floating button and moves them onto the arc through their
+     * translation, so that toggling the menu or changing the radius or the arc doesn't need a layout pass.
+     *
+     * @param positionByTranslation
+     */
+    public void setPositionByTranslation(boolean positionByTranslation) {
+        if (mPositionByTranslation == positionByTranslation) {
+            return;
+        }
+
+        mPositionByTranslation = positionByTranslation;
+        if (!positionByTranslation) {
+            for (int i = 0, childCount = getChildCount(); i < childCount; i++) {
+                View v = getChildAt(i);
+                v.setTranslationX(0.0f);
+                v.setTranslationY(0.0f);
+            }
+        }
+
+        requestLayout();
+    }
+
+    public boolean isPositionedByTranslation() {
+        return mPositionByTranslation;
+    }
+
+    /**
+     * Adds a child without requesting a layout, so that a batch of changes only costs a single layout pass. The caller
+     * is expected to call {@link #requestLayout()} once it's done.
+     *
+     * @param child
+     * @param index
+     */
+    void addItemInLayout(View child, int index) {
+        LayoutParams params = child.getLayoutParams();
+        if (params == null) {
+            params = generateDefaultLayoutParams();
+        }
+        addViewInLayout(child, index, params, true);
+    }
+
+    /**
+     * Removes a child without requesting a layout, see {@link #addItemInLayout(android.view.View, int)}.
+     *
+     * @param child
+     */
+    void removeItemInLayout(View child) {
+        removeViewInLayout(child);
+    }
+
+    /**
+     * <p>Replaces the children with the given items in a single layout pass. Items that were already children are kept
+     * and moved to their new index, the others are removed or added.</p>
+     * <p/>
+     * <p>When the menu is open and not animating, only the items affected by the change animate: added items grow
+     * and fade in, removed items shrink and fade out, and items whose place on the arc changed slide from where they
+     * were drawn to their new place once they have been laid out.</p>
+     *
+     * @param items:   the new children, in order
+     * @param animate: whether the changes should be animated
+     */
+    void setItems(List<View> items, boolean animate) {
+        final int count = items.size();
+        final int oldCount = getChildCount();
+        final boolean animateChanges = shouldAnimateItemChanges(animate);
+
+        final IdentityHashMap<View, Integer> newIndices = new IdentityHashMap<View, Integer>(count);
+        for (int i = 0; i < count; i++) {
+            if (newIndices.put(items.get(i), i) != null) {
+                throw new IllegalArgumentException("An item can only be added to the menu once");
+            }
+        }
+
+        for (int i = oldCount - 1; i >= 0; i--) {
+            final View child = getChildAt(i);
+            final Integer newIndex = newIndices.get(child);
+
+            if (newIndex == null) {
+                removeItemInLayout(child, animateChanges);
+            } else if (animateChanges && (newIndex != i || count != oldCount) && !mPendingItemChanges.containsKey(child)) {
+                /*
+                The place on the arc depends on the index and the number of items, so the item slides from where it is
+                drawn now.
+                 */
+                mPendingItemChanges.put(child, new ItemChange(child, ItemChange.MOVED,
+                        child.getLeft() + child.getTranslationX(), child.getTop() + child.getTranslationY()));
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            final View item = items.get(i);
+            if (i < getChildCount() && getChildAt(i) == item) {
+                continue;
+            }
+
+            final boolean inserted = item.getParent() != this;
+            if (inserted) {
+                /*
+                An item added back while it's animating out has to be done with its removal first.
+                 */
+                endItemChange(item);
+            } else {
+                removeViewInLayout(item);
+            }
+            addItemInLayout(item, i);
+
+            if (inserted && animateChanges) {
+                item.setVisibility(VISIBLE);
+                mPendingItemChanges.put(item, new ItemChange(item, ItemChange.INSERTED, 0.0f, 0.0f));
+            }
+        }
+
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * <p>Adds a single item after the current children. Unlike {@link #setItems(java.util.List, boolean)} the other
+     * children aren't compared or moved, so adding items one by one stays linear in their number.</p>
+     * <p/>
+     * <p>When the menu is open and not animating, only the added item grows and fades in.</p>
+     *
+     * @param item:    the new child
+     * @param animate: whether the change should be animated
+     */
+    void appendItem(View item, boolean animate) {
+        if (item.getParent() == this) {
+            throw new IllegalArgumentException("An item can only be added to the menu once");
+        }
+
+        /*
+        An item added back while it's animating out has to be done with its removal first.
+         */
+        endItemChange(item);
+        addItemInLayout(item, getChildCount());
+
+        if (shouldAnimateItemChanges(animate)) {
+            item.setVisibility(VISIBLE);
+            mPendingItemChanges.put(item, new ItemChange(item, ItemChange.INSERTED, 0.0f, 0.0f));
+        }
+
+        requestLayout();
+        invalidate();
+    }
+
+    /**
+     * <p>Removes a single item. Unlike {@link #setItems(java.util.List, boolean)} the other children aren't compared or
+     * moved.</p>
+     * <p/>
+     * <p>When the menu is open and not animating, only the removed item shrinks and fades out.</p>
+     *
+     * @param item:    a current child
+     * @param animate: whether the change should be animated
+     */
+    void removeItem(View item, boolean animate) {
+        removeItemInLayout(item, shouldAnimateItemChanges(animate));
+
+        requestLayout();
+        invalidate();
+    }
+
+    private boolean shouldAnimateItemChanges(boolean animate) {
+        return animate && mExpanded && (mAnimationHandler == null || !mAnimationHandler.isAnimating());
+    }
+
+    private void removeItemInLayout(View child, boolean animateChanges) {
+        mPendingItemChanges.remove(child);
+        if (animateChanges) {
+            /*
+            The removed item is still drawn until it has animated out.
+             */
+            startViewTransition(child);
+            removeViewInLayout(child);
+            startItemChange(new ItemChange(child, ItemChange.REMOVED, 0.0f, 0.0f));
+        } else {
+            removeViewInLayout(child);
+        }
+    }
+
+    /**
+     * Animates the items changed by {@link #setItems(java.util.List, boolean)}, {@link #appendItem(View, boolean)} or
+     * {@link #removeItem(View, boolean)} now that they are laid out in their new place.
+     */
+    private void startItemChanges() {
+        for (ItemChange itemChange : mPendingItemChanges.values()) {
+            startItemChange(itemChange);
+        }
+        mPendingItemChanges.clear();
+    }
+
+    private void startItemChange(ItemChange itemChange) {
+        final View view = itemChange.mView;
+        view.animate().cancel();
+
+        switch (itemChange.mType) {
+            case ItemChange.INSERTED:
+                view.setAlpha(0.0f);
+                view.setScaleX(INSERTED_ITEM_SCALE);
+                view.setScaleY(INSERTED_ITEM_SCALE);
+                view.animate().alpha(1.0f).scaleX(1.0f).scaleY(1.0f);
+                break;
+            case ItemChange.REMOVED:
+                view.animate().alpha(0.0f).scaleX(INSERTED_ITEM_SCALE).scaleY(INSERTED_ITEM_SCALE);
+                break;
+            default:
+                final float deltaX = itemChange.mFromX - (view.getLeft() + view.getTranslationX());
+                final float deltaY = itemChange.mFromY - (view.getTop() + view.getTranslationY());
+                if (deltaX == 0.0f && deltaY == 0.0f) {
+                    return;
+                }
+
+                itemChange.mTargetTranslationX = view.getTranslationX();
+                itemChange.mTargetTranslationY = view.getTranslationY();
+                view.setTranslationX(itemChange.mTargetTranslationX + deltaX);
+                view.setTranslationY(itemChange.mTargetTranslationY + deltaY);
+                view.animate().translationX(itemChange.mTargetTranslationX).translationY(itemChange.mTargetTranslationY);
+                break;
+        }
+
+        mRunningItemChanges.add(itemChange);
+        view.animate().setDuration(ITEM_CHANGE_DURATION).setListener(itemChange).start();
+    }
+
+    private void endItemChange(View view) {
+        for (int i = mRunningItemChanges.size() - 1; i >= 0; i--) {
+            if (mRunningItemChanges.get(i).mView == view) {
+                view.animate().cancel();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Jumps every item change to its end, so that the menu animation starts from the items at rest.
+     */
+    private void endItemChanges() {
+        mPendingItemChanges.clear();
+        for (int i = mRunningItemChanges.size() - 1; i >= 0; i--) {
+            mRunningItemChanges.get(i).mView.animate().cancel();
+        }
+    }
+
+    /**
+     * Spreads the children over concentric rings instead of a single arc.
+     *
+     * @param ringLayout
+     */
+    public void setRingLayout(boolean ringLayout) {
+        if (mRingLayout == ringLayout) {
+            return;
+        }
+
+        mRingLayout = ringLayout;
+        updateRings();
 
         requestLayout();
     }
 
+    public boolean isRingLayout() {
+        return mRingLayout;
+    }
+
+    /**
+     * Passes the ring spacing to the geometry, which is the size of the largest child so that neighbouring children
+     * don't overlap. The geometry only reassigns the rings when the spacing, the radius or the child count changes.
+     */
+    private void updateRings() {
+        if (!mRingLayout) {
+            mArcGeometry.setRings(0, 0);
+            return;
+        }
+
+        int ringSpacing = 0;
+        for (int i = 0, childCount = getChildCount(); i < childCount; i++) {
+            View v = getChildAt(i);
+            ringSpacing = Math.max(ringSpacing, Math.max(v.getMeasuredWidth(), v.getMeasuredHeight()));
+        }
+        mArcGeometry.setRings(ringSpacing, mRadius);
+    }
+
     public void setAnimationHandler(FloatingButtonAnimationHandlerBase animationHandler) {
         mAnimationHandler = animationHandler;
     }
@@ -129,6 +535,10 @@ class FloatingButtonLayout extends ViewGroup {
         return mFromDegrees;
     }
 
+    public ArcGeometry getArcGeometry() {
+        return mArcGeometry;
+    }
+
     public Point getFloatingButtonTopCornerCoor() {
         return mFloatingButtonTopCornerCoor;
     }
@@ -145,15 +555,29 @@ class FloatingButtonLayout extends ViewGroup {
         return mRadius;
     }
 
-    public void setFloatingButtonParams(Point coor, int width, int height) {
-        mFloatingButtonTopCornerCoor = coor;
+    /**
+     * Sets the frame of the floating button, in the coordinates of this layout. The children are placed again right
+     * away if it has changed, without requesting another layout pass.
+     *
+     * @param left
+     * @param top
+     * @param width
+     * @param height
+     */
+    public void setFloatingButtonParams(int left, int top, int width, int height) {
+        if (mFloatingButtonTopCornerCoor.x == left && mFloatingButtonTopCornerCoor.y == top
+                && mFloatingButtonWidth == width && mFloatingButtonHeight == height) {
+            return;
+        }
+
+        mFloatingButtonTopCornerCoor.set(left, top);
 
         mFloatingButtonWidth = width;
         mFloatingButtonHeight = height;
 
-        mFloatingButtonCenter = new Point(coor.x + width / 2, coor.y + height / 2);
+        mFloatingButtonCenter.set(left + width / 2, top + height / 2);
 
-        requestLayout();
+        layoutChildren();
     }
 
     /**
@@ -164,36 +588,89 @@ class FloatingButtonLayout extends ViewGroup {
      * @return
      */
     public boolean isPointOutsideFloatingButtonLayout(int x, int y) {
-        Rect floatingButtonLayoutArea = getFloatingButtonLayoutTouchArea();
-        return !floatingButtonLayoutArea.contains(x, y);
+        return !mTouchArea.contains(x, y);
     }
 
     /**
-     * Returns the approximate area of the Floating Button layout taking into consideration if it's opened or not. We also
-     * add an extra padding to this value.
-     *
-     * @return
+     * Computes the area of the Floating Button layout taking into consideration if it's opened or not: the floating
+     * button, plus the children and the arc joining them when opened. We also add an extra padding to this value. It
+     * is run on every layout pass, which follows any change to the state, radius, arc or floating button params, so
+     * the touch path only has to read the result.
      */
-    private Rect getFloatingButtonLayoutTouchArea() {
-        int padding = getResources().getDimensionPixelOffset(R.dimen.floating_button_layout_additional_padding);
-        int xCoor = mFloatingButtonTopCornerCoor.x;
-        int yCoor = mFloatingButtonTopCornerCoor.y;
+    private void updateTouchArea() {
+        final TouchArea touchArea = mTouchArea;
+        final int padding = mTouchAreaPadding;
 
-        int left = xCoor - padding;
-        int top = yCoor - padding;
-        if (mExpanded && getChildCount() > 0) {
-            View childView = getChildAt(0);
+        touchArea.setButton(mFloatingButtonTopCornerCoor.x, mFloatingButtonTopCornerCoor.y, mFloatingButtonWidth,
+                mFloatingButtonHeight, padding);
 
-            int childWidth = childView.getMeasuredWidth();
-            int childHeight = childView.getMeasuredHeight();
+        final int childCount = getChildCount();
+        if (!mExpanded || childCount == 0) {
+            touchArea.setCollapsed();
+            return;
+        }
 
-            left -= (mRadius + childWidth - mFloatingButtonWidth / 2);
-            top -= (mRadius + childHeight - mFloatingButtonHeight / 2);
+        final int centerX = mFloatingButtonCenter.x;
+        final int centerY = mFloatingButtonCenter.y;
+        final int[] frames = touchArea.getChildFrames(childCount);
+        int childHalfSize = 0;
+
+        for (int i = 0, offset = 0; i < childCount; i++, offset += ArcGeometry.FRAME_SIZE) {
+            View v = getChildAt(i);
+            final int childWidth = v.getMeasuredWidth();
+            final int childHeight = v.getMeasuredHeight();
+
+            mArcGeometry.computeChildFrame(i, centerX, centerY, mRadius, childWidth, childHeight, frames, offset);
+            frames[offset + ArcGeometry.LEFT] -= padding;
+            frames[offset + ArcGeometry.TOP] -= padding;
+            frames[offset + ArcGeometry.RIGHT] += padding;
+            frames[offset + ArcGeometry.BOTTOM] += padding;
+
+            childHalfSize = Math.max(childHalfSize, Math.max(childWidth, childHeight) / 2);
         }
-        int right = xCoor + mFloatingButtonWidth + padding;
-        int bottom = yCoor + mFloatingButtonHeight + padding;
 
-        return new Rect(left, top, right, bottom);
+        touchArea.setExpanded(centerX, centerY, mRadius, mArcGeometry.getOuterRadius(mRadius), mFromDegrees, mToDegrees,
+                childHalfSize, padding);
     }
 
+    /**
+     * A change to a single item made by {@link #setItems(java.util.List, boolean)}, {@link #appendItem(View, boolean)}
+     * or {@link #removeItem(View, boolean)}, which is also the listener of its animation and leaves the item at rest
+     * when the animation ends or is cancelled.
+     */
+    private class ItemChange extends AnimatorListenerAdapter {
+        static final int INSERTED = 0;
+        static final int REMOVED = 1;
+        static final int MOVED = 2;
+
+        final View mView;
+        final int mType;
+        final float mFromX;
+        final float mFromY;
+        float mTargetTranslationX;
+        float mTargetTranslationY;
+
+        ItemChange(View view, int type, float fromX, float fromY) {
+            mView = view;
+            mType = type;
+            mFromX = fromX;
+            mFromY = fromY;
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            mView.animate().setListener(null);
+            mRunningItemChanges.remove(this);
+
+            mView.setAlpha(1.0f);
+            mView.setScaleX(1.0f);
+            mView.setScaleY(1.0f);
+            if (mType == MOVED) {
+                mView.setTranslationX(mTargetTranslationX);
+                mView.setTranslationY(mTargetTranslationY);
+            } else if (mType == REMOVED) {
+                endViewTransition(mView);
+            }
+        }
+    }
 }
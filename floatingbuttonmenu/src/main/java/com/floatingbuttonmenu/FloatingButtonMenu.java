@@ -3,34 +3,65 @@ package com.floatingbuttonmenu;
 import android.app.Activity;
 import android.content.Context;
 import android.content.res.TypedArray;
+import android.database.DataSetObserver;
+import android.graphics.Canvas;
 import android.graphics.Point;
 import android.graphics.Rect;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Looper;
+import android.os.MessageQueue;
 import android.util.AttributeSet;
+import android.view.GestureDetector;
 import android.view.KeyEvent;
-import android.view.LayoutInflater;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ImageView;
-import android.widget.RelativeLayout;
 
 import com.floatingbuttonmenu.animation.FloatingButtonAnimationHandlerBase;
 import com.floatingbuttonmenu.animation.TranslateAlphaFloatingButtonAnimationHandler;
+import com.floatingbuttonmenu.core.ArcGeometry;
+import com.floatingbuttonmenu.core.FrameStats;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * <p>A menu that emulates android's floating action button with the additional feature of opening up sub-items
  * in an  arc when clicked.</p>
  * <p/>
- * <p>Items should be added using the {@link #addItem(android.view.View)} method. All property method calls can be
- * chained together.</p>
+ * <p>Items should be added using the {@link #addItem(android.view.View)} method, or supplied by a
+ * {@link FloatingButtonMenuAdapter} when there are many of them. All property method calls can be chained together.</p>
  * <p/>
  * <p>The menu also provides listeners for sub-item clicks ({@link com.floatingbuttonmenu.FloatingButtonMenu.OnItemClickListener}) and for
  * when the menu is opened/closed ({@link com.floatingbuttonmenu.FloatingButtonMenu.OnStateChangeListener})</p>
  * <p/>
- * <p>Ideally, this layout should match the parent and be on top of all views. Android padding and margins should also be avoided since
+ * <p>Unless it is hosted in the window, this layout should ideally match the parent and be on top of all views. Android padding and margins should also be avoided since
  * that can cause clipping of the background.</p>
+ * <p/>
+ * <p>With the {@code lazy_init} attribute only the floating button is created with the menu. The layout holding the
+ * items and the default animation handler are created during the first idle time after the menu is drawn, or when it
+ * is first opened if that happens sooner.</p>
+ * <p/>
+ * <p>The work of the first open is done ahead of it while the menu is closed, see {@link #prewarm()}: during the first
+ * idle time after the menu is drawn or its items or animation handler change, and when the floating button is
+ * pressed.</p>
+ * <p/>
+ * <p>The menu measures and places its children itself: the layout holding the items fills the menu, and the floating
+ * button sits in the bottom right corner, inside its margins. Nothing is inflated, and every child is measured once
+ * per pass.</p>
+ * <p/>
+ * <p>The background is a scrim the menu draws below its children, see {@link #setScrimMode(int)}.</p>
+ * <p/>
+ * <p>With {@link #HOST_IN_WINDOW} the menu only holds the floating button and can wrap it like any other view. The
+ * items and the scrim are shown in a panel on top of the window while the menu is open, so the menu doesn't have to
+ * cover the screen.</p>
  */
-public class FloatingButtonMenu extends RelativeLayout {
+public class FloatingButtonMenu extends ViewGroup {
 
     /**
      * Listener for notifying menu item clicks.
@@ -57,15 +88,153 @@ public class FloatingButtonMenu extends RelativeLayout {
         public void onMenuStateChanged(boolean opened);
     }
 
+    /**
+     * Listener for reporting the frame timings of the open/close animations.
+     */
+    public interface OnFrameTimingListener {
+        /**
+         * This method is called after every open/close animation of the menu has finished.
+         *
+         * @param opened: whether the menu was opening or closing
+         * @param stats:  the timings of the animation. The same instance is reused for every report, so it should
+         *                not be held on to after this method returns.
+         */
+        public void onFrameTiming(boolean opened, FrameStats stats);
+    }
+
+    /**
+     * The number of adapter items shown at once unless {@link #setMaxVisibleItems(int)} is called.
+     */
+    public static final int DEFAULT_MAX_VISIBLE_ITEMS = 8;
+
+    /**
+     * Every child is spread evenly on a single arc.
+     */
+    public static final int LAYOUT_MODE_ARC = 0;
+
+    /**
+     * Children are spread over concentric rings, each ring holding as many children as fit along it.
+     */
+    public static final int LAYOUT_MODE_RINGS = 1;
+
+    /**
+     * Adapter items are shown on a single arc, one page of {@link #setMaxVisibleItems(int)} items at a time, and a
+     * fling along the arc moves to the next or previous page.
+     */
+    public static final int LAYOUT_MODE_PAGED = 2;
+
+    /**
+     * Children are laid out at their place on the arc, so every toggle and every change of the radius or the arc
+     * requests a layout pass.
+     */
+    public static final int POSITION_BY_LAYOUT = 0;
+
+    /**
+     * Children are laid out once at the center of the floating button and moved onto the arc through their
+     * translation, so toggles and changes of the radius or the arc only update render properties. This makes
+     * {@link #setRadius(int)} cheap enough to be called on every frame, e.g. from a slider.
+     */
+    public static final int POSITION_BY_TRANSLATION = 1;
+
+    /**
+     * The scrim covers the whole menu and fades in and out.
+     */
+    public static final int SCRIM_MODE_FULL = 0;
+
+    /**
+     * The scrim only covers the circle the items reach around the floating button, and fades in and out.
+     */
+    public static final int SCRIM_MODE_RADIAL = 1;
+
+    /**
+     * The scrim only covers the circle the items reach around the floating button, and grows out of the floating
+     * button when the menu opens.
+     */
+    public static final int SCRIM_MODE_REVEAL = 2;
+
+    /**
+     * The items and the scrim are drawn by the menu itself, which should match its parent and be on top of all views.
+     */
+    public static final int HOST_IN_LAYOUT = 0;
+
+    /**
+     * The menu only holds the floating button. The items and the scrim are shown in a panel added on top of the
+     * window when the menu opens, and removed once it has closed.
+     */
+    public static final int HOST_IN_WINDOW = 1;
+
+    /**
+     * A touch outside of the open menu closes it and is consumed, so it takes another touch to reach the views below.
+     */
+    public static final int DISMISS_CONSUME = 0;
+
+    /**
+     * A touch outside of the open menu closes it and goes on to the views below, along with the rest of its gesture,
+     * so a tap or a scroll outside of the menu acts right away.
+     */
+    public static final int DISMISS_TAP_THROUGH = 1;
+
     private FloatingButtonLayout floatingButtonLayout;
+    /*
+    Stands in for the geometry of the FloatingButtonLayout until the hierarchy is created.
+     */
+    private ArcGeometry pendingArcGeometry;
     private ImageView floatingButton;
-    private View backgroundView;
-    private ViewGroup floatingButtonContainer;
+    private final Scrim scrim = new Scrim(this);
+    private int hostMode = HOST_IN_LAYOUT;
+    private int dismissMode = DISMISS_CONSUME;
+    private WindowOverlayPanel windowPanel;
+    private final int[] windowLocation = new int[2];
+    private int floatingButtonMarginLeft;
+    private int floatingButtonMarginTop;
+    private int floatingButtonMarginRight;
+    private int floatingButtonMarginBottom;
+    private FloatingButtonAnimationHandlerBase animationHandler;
     private OnItemClickListener onItemClickListener;
     private OnStateChangeListener onStateChangeListener;
+    private FrameTimingMonitor frameTimingMonitor;
+
+    private FloatingButtonMenuAdapter adapter;
+    private RecycledViewPool recycledViewPool;
+    private int maxVisibleItems = DEFAULT_MAX_VISIBLE_ITEMS;
+    private int firstVisiblePosition;
+
+    private int layoutMode = LAYOUT_MODE_ARC;
+    private GestureDetector pageGestureDetector;
+    private boolean pageFlung;
+
+    /*
+    Whether the current gesture started outside of the open menu and closed it, in which case the host consumes the
+    rest of it.
+     */
+    private boolean consumingDismissGesture;
 
     private boolean showBackground = true;
 
+    /*
+    The menu keeps its own copy of these so they can be set before the menu hierarchy is created in lazy mode.
+     */
+    private float fromDegrees = FloatingButtonLayout.FROM_DEGREES_DEFAULT;
+    private float toDegrees = FloatingButtonLayout.TO_DEGREES_DEFAULT;
+    private int radius = FloatingButtonLayout.DEFAULT_RADIUS;
+    private int positionMode = POSITION_BY_LAYOUT;
+    private int backgroundColor;
+    private ArrayList<View> pendingItems;
+
+    private int itemSize;
+    private Drawable itemPlaceholder;
+
+    private boolean lazyInit;
+    private boolean drawn;
+    private boolean prewarmScheduled;
+    private boolean prewarmed;
+    private int prewarmedHostWidth;
+    private int prewarmedHostHeight;
+    private boolean awaitingFirstLayout;
+    private boolean hasPendingState;
+    private boolean pendingExpanded;
+    private boolean pendingAnimate;
+
     FloatingButtonMenu(Context context) {
         super(context);
         init(null);
@@ -77,16 +246,76 @@ public class FloatingButtonMenu extends RelativeLayout {
     }
 
     private void init(AttributeSet attrs) {
-        LayoutInflater inflater = LayoutInflater.from(getContext());
-        inflater.inflate(R.layout.floating_button_menu, this);
-
-        floatingButtonLayout = (FloatingButtonLayout) findViewById(R.id.floating_button_layout);
-        floatingButtonContainer = (ViewGroup) findViewById(R.id.floating_button_container);
-        backgroundView = findViewById(R.id.background_view);
-        floatingButton = (ImageView) findViewById(R.id.floating_button);
+        floatingButton = new ImageView(getContext());
+        floatingButton.setId(R.id.floating_button);
+        floatingButton.setScaleType(ImageView.ScaleType.CENTER_INSIDE);
         floatingButton.setOnClickListener(floatButtonClickListener);
+        floatingButton.setOnTouchListener(floatButtonTouchListener);
+        addView(floatingButton, new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT));
+
+        applyAttrs(attrs);
+
+        if (!lazyInit) {
+            createMenuHierarchy();
+        }
+    }
+
+    /**
+     * Creates the FloatingButtonLayout, creates the default animation handler if none was set,
+     * and applies everything that was set on the menu so far. Does nothing if the hierarchy already exists.
+     */
+    private void createMenuHierarchy() {
+        if (floatingButtonLayout != null) {
+            return;
+        }
+
+        floatingButtonLayout = new FloatingButtonLayout(getContext());
+        floatingButtonLayout.setId(R.id.floating_button_layout);
+        attachFloatingButtonLayout();
+
+        if (animationHandler == null) {
+            animationHandler = new TranslateAlphaFloatingButtonAnimationHandler.Builder(this).build();
+        }
+        floatingButtonLayout.setAnimationHandler(animationHandler);
+        floatingButtonLayout.setArc(fromDegrees, toDegrees);
+        floatingButtonLayout.setRadius(radius);
+        floatingButtonLayout.setRingLayout(layoutMode == LAYOUT_MODE_RINGS);
+        floatingButtonLayout.setPositionByTranslation(positionMode == POSITION_BY_TRANSLATION);
+
+        if (pendingItems != null) {
+            for (int i = 0, size = pendingItems.size(); i < size; i++) {
+                floatingButtonLayout.addItemInLayout(pendingItems.get(i), i);
+            }
+            pendingItems = null;
+        }
+        if (adapter != null) {
+            populateFromAdapter();
+        }
 
-        setAnimationHandler(new TranslateAlphaFloatingButtonAnimationHandler.Builder(this).build());
+        /*
+        The children can't be animated before they are measured and the floating button frame is known, so a
+        hierarchy created on demand applies the first state change after its first layout.
+         */
+        awaitingFirstLayout = lazyInit && hostMode == HOST_IN_LAYOUT;
+    }
+
+    /**
+     * Adds the FloatingButtonLayout to its host: the menu, where it fills the menu and is drawn below the floating
+     * button, or the window panel.
+     */
+    private void attachFloatingButtonLayout() {
+        final LayoutParams layoutParams = new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT);
+        if (hostMode == HOST_IN_WINDOW) {
+            if (windowPanel == null) {
+                windowPanel = new WindowOverlayPanel(this, scrim);
+            }
+            windowPanel.addView(floatingButtonLayout, layoutParams);
+            scrim.setHost(windowPanel);
+            return;
+        }
+
+        addView(floatingButtonLayout, 0, layoutParams);
+        scrim.setHost(this);
 
         /*
         These properties are being set so that we can intercept the key events (mainly the back press event)
@@ -94,11 +323,231 @@ public class FloatingButtonMenu extends RelativeLayout {
         this.setFocusable(true);
         this.setFocusableInTouchMode(true);
         this.requestFocus();
+    }
 
-        applyAttrs(attrs);
-        setFloatingButtonParams();
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int horizontalMargins = floatingButtonMarginLeft + floatingButtonMarginRight;
+        final int verticalMargins = floatingButtonMarginTop + floatingButtonMarginBottom;
+        final LayoutParams buttonParams = floatingButton.getLayoutParams();
+
+        floatingButton.measure(
+                getChildMeasureSpec(widthMeasureSpec, getPaddingLeft() + getPaddingRight() + horizontalMargins, buttonParams.width),
+                getChildMeasureSpec(heightMeasureSpec, getPaddingTop() + getPaddingBottom() + verticalMargins, buttonParams.height));
+
+        /*
+        The menu is meant to fill its parent, it only wraps the floating button when it isn't given a size.
+         */
+        final int width = resolveSize(getPaddingLeft() + getPaddingRight() + horizontalMargins + floatingButton.getMeasuredWidth(),
+                widthMeasureSpec);
+        final int height = resolveSize(getPaddingTop() + getPaddingBottom() + verticalMargins + floatingButton.getMeasuredHeight(),
+                heightMeasureSpec);
+        setMeasuredDimension(width, height);
+
+        if (floatingButtonLayout != null && hostMode == HOST_IN_LAYOUT) {
+            final int contentWidthSpec = MeasureSpec.makeMeasureSpec(
+                    Math.max(0, width - getPaddingLeft() - getPaddingRight()), MeasureSpec.EXACTLY);
+            final int contentHeightSpec = MeasureSpec.makeMeasureSpec(
+                    Math.max(0, height - getPaddingTop() - getPaddingBottom()), MeasureSpec.EXACTLY);
+            floatingButtonLayout.measure(contentWidthSpec, contentHeightSpec);
+        }
+    }
+
+    /**
+     * Places the FloatingButtonLayout over the whole menu and the floating button in the bottom
+     * right corner. The FloatingButtonLayout is then given the frame of the floating button, so the children are placed
+     * correctly on the very first frame.
+     */
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        final int left = getPaddingLeft();
+        final int top = getPaddingTop();
+        final int right = r - l - getPaddingRight();
+        final int bottom = b - t - getPaddingBottom();
+
+        final int buttonWidth = floatingButton.getMeasuredWidth();
+        final int buttonHeight = floatingButton.getMeasuredHeight();
+        final int buttonLeft = right - floatingButtonMarginRight - buttonWidth;
+        final int buttonTop = bottom - floatingButtonMarginBottom - buttonHeight;
+        floatingButton.layout(buttonLeft, buttonTop, buttonLeft + buttonWidth, buttonTop + buttonHeight);
+
+        if (floatingButtonLayout == null) {
+            return;
+        }
+
+        if (hostMode == HOST_IN_LAYOUT) {
+            layoutMenuHierarchy(this, left, top, right, bottom);
+        } else if (windowPanel.getParent() != null) {
+            /*
+            The floating button may have moved within the window.
+             */
+            windowPanel.requestLayout();
+        }
+    }
+
+    /**
+     * Lays out the FloatingButtonLayout over the given box of its host, either the menu or the window panel, and
+     * gives it the frame of the floating button in the coordinates of the host.
+     *
+     * @param host: the view holding the FloatingButtonLayout
+     */
+    void layoutMenuHierarchy(View host, int left, int top, int right, int bottom) {
+        floatingButtonLayout.layout(left, top, right, bottom);
+        updateFloatingButtonParams(host);
+        updateScrimReach();
+
+        if (awaitingFirstLayout) {
+            awaitingFirstLayout = false;
+            post(applyPendingStateRunnable);
+        }
+    }
+
+    /**
+     * Gives the FloatingButtonLayout the frame of the floating button, converted from the menu to the coordinates of
+     * the host the FloatingButtonLayout is laid out in.
+     *
+     * @param host: the view holding the FloatingButtonLayout, or the root view the window panel fills
+     */
+    private void updateFloatingButtonParams(View host) {
+        int buttonLeft = floatingButton.getLeft();
+        int buttonTop = floatingButton.getTop();
+        if (host != this) {
+            getLocationInWindow(windowLocation);
+            buttonLeft += windowLocation[0];
+            buttonTop += windowLocation[1];
+            host.getLocationInWindow(windowLocation);
+            buttonLeft -= windowLocation[0];
+            buttonTop -= windowLocation[1];
+        }
+
+        floatingButtonLayout.setFloatingButtonParams(buttonLeft - floatingButtonLayout.getLeft(),
+                buttonTop - floatingButtonLayout.getTop(), floatingButton.getWidth(), floatingButton.getHeight());
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        if (hostMode == HOST_IN_LAYOUT) {
+            scrim.draw(canvas);
+        }
+        super.dispatchDraw(canvas);
+
+        if (!drawn) {
+            drawn = true;
+            schedulePrewarm();
+        }
+    }
+
+    /**
+     * Runs {@link #prewarm()} during the next idle time, once the menu has been drawn so that it doesn't delay the
+     * first frame.
+     */
+    private void schedulePrewarm() {
+        if (!drawn || prewarmScheduled) {
+            return;
+        }
+        prewarmScheduled = true;
+        Looper.myQueue().addIdleHandler(prewarmIdleHandler);
+    }
+
+    /**
+     * Marks the work done by {@link #prewarm()} as out of date, so that the next call does it again, and schedules it.
+     * The menu calls this when its items, arc, radius or animation handler change, and animation handlers call it when
+     * a setting their animations are built from changes.
+     */
+    public void invalidatePrewarm() {
+        prewarmed = false;
+        schedulePrewarm();
+    }
+
+    private MessageQueue.IdleHandler prewarmIdleHandler = new MessageQueue.IdleHandler() {
+        @Override
+        public boolean queueIdle() {
+            prewarmScheduled = false;
+            prewarm();
+            return false;
+        }
+    };
+
+    /**
+     * <p>Does the work of the first open ahead of it, while the menu is closed, so that the open starts on the next
+     * frame: creates the menu hierarchy and the animation handler, has the handler build its animations, and gets the
+     * bitmaps of the items ready to be drawn.</p>
+     * <p/>
+     * <p>When the menu is hosted in the window and its panel isn't shown, the items are also measured and laid out
+     * for the size of the window, so the frames of the items are already computed when the panel is shown.</p>
+     * <p/>
+     * <p>The menu calls this during the first idle time after it's drawn or its items or animation handler change, and
+     * when the floating button is pressed, which leaves the time until the click to do it. Does nothing while the menu
+     * is open or animating, and once the menu is warm, until {@link #invalidatePrewarm()} is called or the size of the
+     * host of the items changes.</p>
+     */
+    public void prewarm() {
+        createMenuHierarchy();
+        if (isExpanded() || animationHandler.isAnimating()) {
+            return;
+        }
+
+        final View host = hostMode == HOST_IN_WINDOW ? getRootView() : this;
+        if (prewarmed && prewarmedHostWidth == host.getWidth() && prewarmedHostHeight == host.getHeight()) {
+            return;
+        }
+
+        if (!isMenuHierarchyAttached() && getWindowToken() != null) {
+            final View root = getRootView();
+            floatingButtonLayout.measure(MeasureSpec.makeMeasureSpec(root.getWidth(), MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(root.getHeight(), MeasureSpec.EXACTLY));
+            floatingButtonLayout.layout(0, 0, root.getWidth(), root.getHeight());
+            updateFloatingButtonParams(root);
+        }
+
+        animationHandler.prewarm();
+
+        for (int i = 0, count = floatingButtonLayout.getChildCount(); i < count; i++) {
+            final View child = floatingButtonLayout.getChildAt(i);
+            if (!(child instanceof ImageView)) {
+                continue;
+            }
+
+            final Drawable drawable = ((ImageView) child).getDrawable();
+            if (drawable instanceof BitmapDrawable && ((BitmapDrawable) drawable).getBitmap() != null) {
+                ((BitmapDrawable) drawable).getBitmap().prepareToDraw();
+            }
+        }
+
+        prewarmed = true;
+        prewarmedHostWidth = host.getWidth();
+        prewarmedHostHeight = host.getHeight();
     }
 
+    /**
+     * Prewarms the menu when the floating button is pressed, in the time it takes the press to become a click.
+     */
+    private OnTouchListener floatButtonTouchListener = new OnTouchListener() {
+        @Override
+        public boolean onTouch(View v, MotionEvent event) {
+            if (event.getAction() == MotionEvent.ACTION_DOWN && !isExpanded()) {
+                prewarm();
+            }
+            return false;
+        }
+    };
+
+    private Runnable applyPendingStateRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (hasPendingState) {
+                hasPendingState = false;
+                floatingButtonLayout.setState(pendingExpanded, pendingAnimate);
+            }
+            detachWindowPanelIfClosed();
+        }
+    };
+
     private void applyAttrs(AttributeSet attrs) {
         if (attrs == null) {
             return;
@@ -117,6 +566,12 @@ public class FloatingButtonMenu extends RelativeLayout {
 
         int backgroundColor = ta.getColor(R.styleable.FloatingButton_background_color, 0);
         boolean showBackground = ta.getBoolean(R.styleable.FloatingButton_show_background, true);
+        int layoutMode = ta.getInt(R.styleable.FloatingButton_layout_mode, LAYOUT_MODE_ARC);
+        int positionMode = ta.getInt(R.styleable.FloatingButton_position_mode, POSITION_BY_LAYOUT);
+        int scrimMode = ta.getInt(R.styleable.FloatingButton_scrim_mode, SCRIM_MODE_FULL);
+        hostMode = ta.getInt(R.styleable.FloatingButton_host_mode, HOST_IN_LAYOUT);
+        int dismissMode = ta.getInt(R.styleable.FloatingButton_dismiss_mode, DISMISS_CONSUME);
+        lazyInit = ta.getBoolean(R.styleable.FloatingButton_lazy_init, false);
 
         if (ta.hasValue(R.styleable.FloatingButton_button_margin)) {
             int margin = ta.getDimensionPixelOffset(R.styleable.FloatingButton_button_margin, 0);
@@ -131,79 +586,173 @@ public class FloatingButtonMenu extends RelativeLayout {
         }
 
         setArc(fromDegree, toDegree)
-                .setFloatingButtonSize(width, height, false)
+                .setFloatingButtonSize(width, height)
                 .setRadius(radius)
                 .setButtonForeground(srcResId)
                 .setButtonBackground(backgroundResId)
                 .setBackground(backgroundColor)
-                .setShowBackground(showBackground);
+                .setShowBackground(showBackground)
+                .setScrimMode(scrimMode)
+                .setDismissMode(dismissMode)
+                .setLayoutMode(layoutMode)
+                .setPositionMode(positionMode);
 
         ta.recycle();
     }
 
-    private void setFloatingButtonParams() {
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        if (hostMode == HOST_IN_LAYOUT && passOutsideTouchThrough(ev)) {
+            return false;
+        }
+        return super.dispatchTouchEvent(ev);
+    }
+
+    /**
+     * With {@link #DISMISS_TAP_THROUGH}, closes the menu on a touch outside of it. The host then doesn't take the
+     * touch, so its parent hands it and the rest of the gesture to the views below.
+     *
+     * @param ev: the event in the coordinates of the host of the FloatingButtonLayout
+     * @return whether the host should let the gesture through
+     */
+    boolean passOutsideTouchThrough(MotionEvent ev) {
+        if (dismissMode != DISMISS_TAP_THROUGH || ev.getAction() != MotionEvent.ACTION_DOWN || !isTouchOutsideMenu(ev)) {
+            return false;
+        }
+
+        close();
+        return true;
+    }
+
+    /**
+     * @param ev: the event in the coordinates of the host of the FloatingButtonLayout
+     * @return whether the menu is open and the touch is outside of the floating button and the items
+     */
+    private boolean isTouchOutsideMenu(MotionEvent ev) {
+        if (!isExpanded()) {
+            return false;
+        }
+
         /*
-        Ensuring the floatingButton is inflated before we get it's location on screen.
+        The touch area is kept in the coordinates of the FloatingButtonLayout.
          */
-        floatingButton.post(new Runnable() {
-            @Override
-            public void run() {
-                Point coordinates = getFloatingButtonCoordinates();
-
-                floatingButtonLayout.setFloatingButtonParams(coordinates, floatingButton.getMeasuredWidth(), floatingButton.getMeasuredHeight());
-            }
-        });
+        final int x = (int) ev.getX() - floatingButtonLayout.getLeft();
+        final int y = (int) ev.getY() - floatingButtonLayout.getTop();
+        return floatingButtonLayout.isPointOutsideFloatingButtonLayout(x, y);
     }
 
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
+        if (hostMode == HOST_IN_LAYOUT && interceptMenuTouch(ev)) {
+            return true;
+        }
+        return super.onInterceptTouchEvent(ev);
+    }
+
+    /**
+     * Closes the menu on a touch outside of it, and takes over the flings that change the page. Called by the host of
+     * the FloatingButtonLayout, with the event in the coordinates of the host.
+     *
+     * @param ev
+     * @return whether the host should intercept the gesture
+     */
+    boolean interceptMenuTouch(MotionEvent ev) {
         if (ev.getAction() == MotionEvent.ACTION_DOWN) {
-            if (isExpanded() && floatingButtonLayout.isPointOutsideFloatingButtonLayout((int) ev.getX(), (int) ev.getY())) {
+            consumingDismissGesture = isTouchOutsideMenu(ev);
+            if (consumingDismissGesture) {
                 close();
                 return true;
             }
         }
-        return super.onInterceptTouchEvent(ev);
-    }
 
-    @Override
-    public boolean onKeyPreIme(int keyCode, KeyEvent event) {
-        if (keyCode == KeyEvent.KEYCODE_BACK && event.getAction() == KeyEvent.ACTION_UP) {
-            if (isExpanded()) {
-                close();
+        /*
+        The children consume the touches on them, so flings starting on a child are picked up here. Once a fling has
+        changed the page the gesture is taken over so that the child doesn't get clicked as well.
+         */
+        if (isPagingByFling()) {
+            pageFlung = false;
+            pageGestureDetector.onTouchEvent(ev);
+            if (pageFlung) {
                 return true;
             }
         }
-        return super.onKeyPreIme(keyCode, event);
+        return false;
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent ev) {
+        if (hostMode == HOST_IN_LAYOUT && handleMenuTouch(ev)) {
+            return true;
+        }
+        return super.onTouchEvent(ev);
     }
 
     /**
-     * Gets the coordinates of the main action view
-     * This method should only be called after the main layout of the Activity is drawn.
+     * Swallows the gesture that dismissed the menu, so that it doesn't reach the views below the host, and feeds the
+     * other touches that reach the host of the FloatingButtonLayout to the page gesture detector.
      *
-     * @return a Point containing x and y coordinates of the top left corner of floating button
+     * @param ev
+     * @return whether the touch was consumed
      */
-    private Point getFloatingButtonCoordinates() {
-        int[] coords = new int[2];
+    boolean handleMenuTouch(MotionEvent ev) {
+        if (consumingDismissGesture) {
+            final int action = ev.getAction();
+            if (action == MotionEvent.ACTION_UP || action == MotionEvent.ACTION_CANCEL) {
+                consumingDismissGesture = false;
+            }
+            return true;
+        }
 
-        /*
-         This method returns a x and y values that can be larger than the dimensions of the device screen.
-          */
-        floatingButton.getLocationOnScreen(coords);
-        Rect activityFrame = new Rect();
+        if (isPagingByFling()) {
+            pageGestureDetector.onTouchEvent(ev);
+            return true;
+        }
+        return false;
+    }
 
-        View mainContentView = getMainContentView();
-        mainContentView.getWindowVisibleDisplayFrame(activityFrame);
-        /*
-         So, we need to deduce the offsets.
-          */
-        coords[0] -= (getScreenSize().x - getMainContentView().getMeasuredWidth());
-        coords[1] -= (activityFrame.height() + activityFrame.top - mainContentView.getMeasuredHeight());
-        return new Point(coords[0], coords[1]);
+    private boolean isPagingByFling() {
+        return layoutMode == LAYOUT_MODE_PAGED && adapter != null && isExpanded() && getPageCount() > 1;
+    }
+
+    private GestureDetector.SimpleOnGestureListener pageGestureListener = new GestureDetector.SimpleOnGestureListener() {
+        @Override
+        public boolean onDown(MotionEvent e) {
+            return true;
+        }
+
+        @Override
+        public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+            /*
+            The fling is projected on the tangent of the middle of the arc, pointing from fromDegrees towards
+            toDegrees. Flinging that way brings in the next page.
+             */
+            final float fromDegrees = getFromDegrees();
+            final float toDegrees = getToDegrees();
+            final double middle = Math.toRadians((fromDegrees + toDegrees) / 2);
+            final float direction = Math.signum(toDegrees - fromDegrees);
+            final double tangentVelocity = direction * (velocityY * Math.cos(middle) - velocityX * Math.sin(middle));
+
+            final int page = getPage();
+            showPage(tangentVelocity > 0 ? page + 1 : page - 1);
+            pageFlung = getPage() != page;
+            return pageFlung;
+        }
+    };
+
+    @Override
+    public boolean onKeyPreIme(int keyCode, KeyEvent event) {
+        if (keyCode == KeyEvent.KEYCODE_BACK && event.getAction() == KeyEvent.ACTION_UP) {
+            if (isExpanded()) {
+                close();
+                return true;
+            }
+        }
+        return super.onKeyPreIme(keyCode, event);
     }
 
     /**
-     * Returns a Rect containing the area that a child is to be contained in.
+     * Returns a Rect containing the area that a child is to be contained in. This allocates a new Rect on every call,
+     * the layout and animation code use {@link #getArcGeometry()} instead.
      *
      * @param centerX:     the x coordinate of the center of the FloatingButton
      * @param centerY:     the y coordinate of the center of the FloatingButton
@@ -222,21 +771,13 @@ public class FloatingButtonMenu extends RelativeLayout {
     }
 
     /**
-     * Retrieves the screen size from the Activity context
-     *
-     * @return the screen size as a Point object
-     */
-    private Point getScreenSize() {
-        Point size = new Point();
-        ((Activity) getContext()).getWindowManager().getDefaultDisplay().getSize(size);
-        return size;
-    }
-
-    /**
-     * Finds and returns the main content view from the Activity context.
+     * Finds and returns the main content view from the Activity context. The menu itself doesn't need it anymore, it
+     * only works when the menu was created with an Activity context.
      *
      * @return the main content view
+     * @deprecated the menu no longer depends on the Activity window
      */
+    @Deprecated
     public View getMainContentView() {
         return ((Activity) getContext()).getWindow().getDecorView().findViewById(android.R.id.content);
     }
@@ -244,7 +785,7 @@ public class FloatingButtonMenu extends RelativeLayout {
     private OnClickListener floatButtonClickListener = new OnClickListener() {
         @Override
         public void onClick(View v) {
-            floatingButtonLayout.toggleState(true);
+            toggle(true);
         }
     };
 
@@ -261,7 +802,7 @@ public class FloatingButtonMenu extends RelativeLayout {
      * @param animate: whether the menu should be animated while opening.
      */
     public void open(boolean animate) {
-        floatingButtonLayout.setState(true, animate);
+        setState(true, animate);
     }
 
     /**
@@ -277,7 +818,7 @@ public class FloatingButtonMenu extends RelativeLayout {
      * @param animate: whether the menu should be animated while closing.
      */
     public void close(boolean animate) {
-        floatingButtonLayout.setState(false, animate);
+        setState(false, animate);
     }
 
     /**
@@ -293,51 +834,562 @@ public class FloatingButtonMenu extends RelativeLayout {
      * @param animate: whether the opening/closing of the menu should be animated.
      */
     public void toggle(boolean animate) {
-        floatingButtonLayout.toggleState(animate);
+        if (floatingButtonLayout != null && !awaitingFirstLayout && isMenuHierarchyAttached()) {
+            /*
+            The layout toggles against a change it has queued while animating, if there is one.
+             */
+            floatingButtonLayout.toggleState(animate);
+            return;
+        }
+
+        setState(!(hasPendingState ? pendingExpanded : isExpanded()), animate);
     }
 
     /**
-     * Sets a click listener for every child view added to the FloatingButtonLayout. This way we can trigger
-     * the FloatingButtonMenuItemClickListener when any of these items are clicked.
+     * Changes the state of the menu, creating the menu hierarchy first if it doesn't exist yet, and showing the window
+     * panel when the menu is hosted in the window. A hierarchy that has just been created or shown hasn't been laid
+     * out, so the change is held until it has.
      *
-     * @param childView
-     * @param index
+     * @param expanded
+     * @param animate
      */
-    private void setOnClickListenerForChild(View childView, final int index) {
-        childView.setOnClickListener(new OnClickListener() {
-            @Override
-            public void onClick(View v) {
-                if (onItemClickListener != null) {
-                    onItemClickListener.onItemClick(v, index);
-                }
-                close();
+    private void setState(boolean expanded, boolean animate) {
+        if (floatingButtonLayout == null) {
+            if (!expanded) {
+                return;
             }
-        });
-    }
+            createMenuHierarchy();
+        }
 
-    /**
-     * Add a new view to the FloatingButtonMenu
-     *
-     * @param view
+        if (expanded && !attachWindowPanel()) {
+            return;
+        }
+
+        if (awaitingFirstLayout) {
+            hasPendingState = true;
+            pendingExpanded = expanded;
+            pendingAnimate = animate;
+            return;
+        }
+
+        hasPendingState = false;
+        floatingButtonLayout.setState(expanded, animate);
+
+        if (!animate) {
+            detachWindowPanelIfClosed();
+        }
+    }
+
+    private boolean isMenuHierarchyAttached() {
+        return hostMode == HOST_IN_LAYOUT || windowPanel.getParent() != null;
+    }
+
+    /**
+     * Adds the window panel on top of the root view of the window, if the menu is hosted in the window and the panel
+     * isn't shown yet.
+     *
+     * @return false if the menu isn't in a window the panel can be added to
+     */
+    private boolean attachWindowPanel() {
+        if (isMenuHierarchyAttached()) {
+            return true;
+        }
+
+        final View root = getRootView();
+        if (root == this || !(root instanceof ViewGroup)) {
+            return false;
+        }
+
+        ((ViewGroup) root).addView(windowPanel, new LayoutParams(LayoutParams.MATCH_PARENT, LayoutParams.MATCH_PARENT));
+        windowPanel.requestFocus();
+        awaitingFirstLayout = true;
+        return true;
+    }
+
+    /**
+     * Removes the window panel once the menu has closed and the scrim has faded out.
+     */
+    private void detachWindowPanelIfClosed() {
+        if (hostMode != HOST_IN_WINDOW || windowPanel.getParent() == null || isExpanded() || hasPendingState) {
+            return;
+        }
+        scrim.runWhenHidden(removeWindowPanelRunnable);
+    }
+
+    private Runnable removeWindowPanelRunnable = new Runnable() {
+        @Override
+        public void run() {
+            final ViewGroup parent = (ViewGroup) windowPanel.getParent();
+            if (parent != null) {
+                parent.removeView(windowPanel);
+            }
+        }
+    };
+
+    /**
+     * A menu hosted in the window is closed when it's taken out of the window, and its panel removed after the
+     * current traversal.
+     */
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+
+        if (windowPanel != null && windowPanel.getParent() != null) {
+            hasPendingState = false;
+            floatingButtonLayout.setState(false, false);
+            scrim.jumpTo(false);
+            windowPanel.post(removeWindowPanelRunnable);
+        }
+    }
+
+    /**
+     * A single click listener shared by every item. The index is resolved from the view's index in the
+     * FloatingButtonLayout when it's clicked, offset by the current page for adapter items, so it stays right when items
+     * are moved, removed, or bound to another adapter position.
+     */
+    private OnClickListener itemClickListener = new OnClickListener() {
+        @Override
+        public void onClick(View v) {
+            final int index = floatingButtonLayout.indexOfChild(v);
+            if (index < 0) {
+                /*
+                The item has been removed and is only animating out.
+                 */
+                return;
+            }
+
+            if (onItemClickListener != null) {
+                onItemClickListener.onItemClick(v, firstVisiblePosition + index);
+            }
+            close();
+        }
+    };
+
+    private DataSetObserver adapterObserver = new DataSetObserver() {
+        @Override
+        public void onChanged() {
+            populateFromAdapter();
+        }
+
+        @Override
+        public void onInvalidated() {
+            populateFromAdapter();
+        }
+    };
+
+    /**
+     * Add a new view to the FloatingButtonMenu. This shouldn't be mixed with {@link #setAdapter(FloatingButtonMenuAdapter)}.
+     * Only the new view is added and, when the menu is open, animated in, so adding items one by one doesn't compare the
+     * whole list every time the way {@link #setItems(java.util.List)} does.
+     *
+     * @param view
      */
     public FloatingButtonMenu addItem(View view) {
-        int childCount = floatingButtonLayout.getChildCount();
-        floatingButtonLayout.addView(view);
+        view.setOnClickListener(itemClickListener);
+
+        if (floatingButtonLayout == null) {
+            if (pendingItems == null) {
+                pendingItems = new ArrayList<View>();
+            }
+            pendingItems.add(view);
+        } else {
+            floatingButtonLayout.appendItem(view, true);
+        }
+        invalidatePrewarm();
+        return this;
+    }
+
+    /**
+     * Adds the given views after the current items, with a single layout pass.
+     *
+     * @param views
+     * @return
+     */
+    public FloatingButtonMenu addItems(View... views) {
+        List<View> items = getItems();
+        Collections.addAll(items, views);
+        return setItems(items);
+    }
+
+    /**
+     * Removes the item at the given index. When the menu is open the item animates out. The other items are left as
+     * they are, see {@link #addItem(android.view.View)}.
+     *
+     * @param index
+     * @return
+     */
+    public FloatingButtonMenu removeItem(int index) {
+        final int count = getItemCount();
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Invalid index " + index + ", size is " + count);
+        }
+
+        if (floatingButtonLayout == null) {
+            pendingItems.remove(index);
+        } else {
+            floatingButtonLayout.removeItem(floatingButtonLayout.getChildAt(index), true);
+        }
+        invalidatePrewarm();
+        return this;
+    }
+
+    /**
+     * Moves the item at {@code fromIndex} to {@code toIndex}, shifting the items in between. When the menu is open the
+     * items whose place on the arc changed slide to their new place.
+     *
+     * @param fromIndex
+     * @param toIndex
+     * @return
+     */
+    public FloatingButtonMenu moveItem(int fromIndex, int toIndex) {
+        List<View> items = getItems();
+        items.add(toIndex, items.remove(fromIndex));
+        return setItems(items);
+    }
+
+    /**
+     * Replaces the items of the menu with the given views, in a single layout pass. The new list is compared with the
+     * current items, so views that were already items are kept, and when the menu is open only the items that were
+     * added, removed or moved are animated. This shouldn't be mixed with {@link #setAdapter(FloatingButtonMenuAdapter)}.
+     *
+     * @param views
+     * @return
+     */
+    public FloatingButtonMenu setItems(List<View> views) {
+        for (int i = 0, size = views.size(); i < size; i++) {
+            views.get(i).setOnClickListener(itemClickListener);
+        }
+
+        if (floatingButtonLayout == null) {
+            pendingItems = new ArrayList<View>(views);
+        } else {
+            floatingButtonLayout.setItems(views, true);
+        }
+        invalidatePrewarm();
+        return this;
+    }
+
+    /**
+     * @return the number of items added through {@link #addItem(android.view.View)}, {@link #addItems(android.view.View...)}
+     * or {@link #setItems(java.util.List)}, or shown from the adapter
+     */
+    public int getItemCount() {
+        if (floatingButtonLayout == null) {
+            return pendingItems != null ? pendingItems.size() : 0;
+        }
+        return floatingButtonLayout.getChildCount();
+    }
+
+    /**
+     * Returns a copy of the current items, which the item methods change and pass to {@link #setItems(java.util.List)}.
+     */
+    private List<View> getItems() {
+        if (floatingButtonLayout == null) {
+            return pendingItems != null ? new ArrayList<View>(pendingItems) : new ArrayList<View>();
+        }
+
+        final int childCount = floatingButtonLayout.getChildCount();
+        List<View> items = new ArrayList<View>(childCount);
+        for (int i = 0; i < childCount; i++) {
+            items.add(floatingButtonLayout.getChildAt(i));
+        }
+        return items;
+    }
+
+    /**
+     * Adds an item showing the given drawable. Bitmap drawables are decoded on a background thread at the item size
+     * and shared with every other menu through the {@link ItemIconCache}; the placeholder set with
+     * {@link #setItemPlaceholder(android.graphics.drawable.Drawable)} is shown until then.
+     *
+     * @param drawableRes
+     * @return
+     */
+    public FloatingButtonMenu addItem(int drawableRes) {
+        ImageView item = createIconItem();
+        ItemIconLoader.load(item, drawableRes, getItemSize());
+        return addItem(item);
+    }
+
+    /**
+     * Adds an item showing the image at the given uri, see {@link #addItem(int)}.
+     *
+     * @param uri: a uri that can be opened through the ContentResolver
+     * @return
+     */
+    public FloatingButtonMenu addItem(Uri uri) {
+        ImageView item = createIconItem();
+        ItemIconLoader.load(item, uri, getItemSize());
+        return addItem(item);
+    }
+
+    private ImageView createIconItem() {
+        final int size = getItemSize();
+
+        ImageView item = new ImageView(getContext());
+        item.setLayoutParams(new ViewGroup.LayoutParams(size, size));
+        item.setScaleType(ImageView.ScaleType.CENTER_INSIDE);
+        item.setImageDrawable(itemPlaceholder);
+        return item;
+    }
+
+    /**
+     * Sets the size of the items created by {@link #addItem(int)} and {@link #addItem(android.net.Uri)}, which their
+     * icons are decoded at. Defaults to the floating_button_menu_item_size dimension.
+     *
+     * @param size: size in pixels
+     * @return
+     */
+    public FloatingButtonMenu setItemSize(int size) {
+        itemSize = size;
+        return this;
+    }
+
+    public int getItemSize() {
+        if (itemSize <= 0) {
+            itemSize = getResources().getDimensionPixelSize(R.dimen.floating_button_menu_item_size);
+        }
+        return itemSize;
+    }
+
+    /**
+     * Sets the drawable shown by the items created by {@link #addItem(int)} and {@link #addItem(android.net.Uri)}
+     * until their icon has been decoded.
+     *
+     * @param placeholder
+     * @return
+     */
+    public FloatingButtonMenu setItemPlaceholder(Drawable placeholder) {
+        itemPlaceholder = placeholder;
+        return this;
+    }
+
+    /**
+     * Sets the adapter that supplies the items of the menu. Only the items of the current page are turned into views,
+     * see {@link #setMaxVisibleItems(int)} and {@link #showPage(int)}. Any item added through {@link #addItem(android.view.View)}
+     * is removed. The index passed to {@link OnItemClickListener} is the position of the item in the adapter.
+     *
+     * @param adapter: the adapter, or null to remove all items
+     * @return
+     */
+    public FloatingButtonMenu setAdapter(FloatingButtonMenuAdapter adapter) {
+        if (this.adapter == adapter) {
+            return this;
+        }
+        if (this.adapter != null) {
+            this.adapter.unregisterDataSetObserver(adapterObserver);
+        }
+
+        if (floatingButtonLayout != null) {
+            floatingButtonLayout.removeAllViews();
+        }
+        pendingItems = null;
+        firstVisiblePosition = 0;
+        this.adapter = adapter;
+
         /*
-        The child count will be the index for this view
+        The view types of the new adapter may mean something else, so the pooled views can't be reused.
          */
-        setOnClickListenerForChild(view, childCount);
+        if (recycledViewPool != null) {
+            recycledViewPool.clear();
+        }
 
+        if (adapter != null) {
+            if (recycledViewPool == null) {
+                recycledViewPool = new RecycledViewPool();
+            }
+            adapter.registerDataSetObserver(adapterObserver);
+            populateFromAdapter();
+        }
         return this;
     }
 
+    public FloatingButtonMenuAdapter getAdapter() {
+        return adapter;
+    }
+
+    /**
+     * Sets how many adapter items are shown at once. Defaults to {@link #DEFAULT_MAX_VISIBLE_ITEMS}.
+     *
+     * @param maxVisibleItems
+     * @return
+     */
+    public FloatingButtonMenu setMaxVisibleItems(int maxVisibleItems) {
+        if (maxVisibleItems <= 0 || this.maxVisibleItems == maxVisibleItems) {
+            return this;
+        }
+        this.maxVisibleItems = maxVisibleItems;
+        firstVisiblePosition = 0;
+
+        if (adapter != null) {
+            populateFromAdapter();
+        }
+        return this;
+    }
+
+    /**
+     * Sets how the items are arranged, one of {@link #LAYOUT_MODE_ARC}, {@link #LAYOUT_MODE_RINGS} and
+     * {@link #LAYOUT_MODE_PAGED}.
+     *
+     * @param layoutMode
+     * @return
+     */
+    public FloatingButtonMenu setLayoutMode(int layoutMode) {
+        if (this.layoutMode == layoutMode) {
+            return this;
+        }
+        this.layoutMode = layoutMode;
+
+        if (layoutMode == LAYOUT_MODE_PAGED && pageGestureDetector == null) {
+            pageGestureDetector = new GestureDetector(getContext(), pageGestureListener);
+        }
+        if (floatingButtonLayout != null) {
+            floatingButtonLayout.setRingLayout(layoutMode == LAYOUT_MODE_RINGS);
+        }
+        invalidatePrewarm();
+        return this;
+    }
+
+    public int getLayoutMode() {
+        return layoutMode;
+    }
+
+    /**
+     * Sets how the children are placed on the arc, either {@link #POSITION_BY_LAYOUT} or {@link #POSITION_BY_TRANSLATION}.
+     *
+     * @param positionMode
+     * @return
+     */
+    public FloatingButtonMenu setPositionMode(int positionMode) {
+        this.positionMode = positionMode;
+        if (floatingButtonLayout != null) {
+            floatingButtonLayout.setPositionByTranslation(positionMode == POSITION_BY_TRANSLATION);
+        }
+        invalidatePrewarm();
+        return this;
+    }
+
+    public int getPositionMode() {
+        return positionMode;
+    }
+
+    public boolean isPositionedByTranslation() {
+        return positionMode == POSITION_BY_TRANSLATION;
+    }
+
+    public int getMaxVisibleItems() {
+        return maxVisibleItems;
+    }
+
+    /**
+     * Shows the given page of adapter items. The views of the current page are bound to the items of the new one.
+     *
+     * @param page: index of the page, clamped to the available pages
+     * @return
+     */
+    public FloatingButtonMenu showPage(int page) {
+        page = Math.max(0, Math.min(page, getPageCount() - 1));
+        if (adapter == null || page * maxVisibleItems == firstVisiblePosition) {
+            return this;
+        }
+        firstVisiblePosition = page * maxVisibleItems;
+        populateFromAdapter();
+        return this;
+    }
+
+    public int getPage() {
+        return firstVisiblePosition / maxVisibleItems;
+    }
+
+    public int getPageCount() {
+        if (adapter == null) {
+            return 1;
+        }
+        return Math.max(1, (adapter.getItemCount() + maxVisibleItems - 1) / maxVisibleItems);
+    }
+
+    /**
+     * @return the adapter position of the first item shown
+     */
+    public int getFirstVisiblePosition() {
+        return firstVisiblePosition;
+    }
+
+    /**
+     * Binds the items of the current page to the children of the FloatingButtonLayout. Children that can be bound
+     * again are kept in place, the rest go back to the pool, and missing ones are taken from the pool or created. The
+     * layout is only requested once for the whole page.
+     */
+    private void populateFromAdapter() {
+        if (floatingButtonLayout == null) {
+            /*
+            The page is bound once the menu hierarchy is created.
+             */
+            return;
+        }
+
+        final int itemCount = adapter.getItemCount();
+        if (firstVisiblePosition >= itemCount) {
+            firstVisiblePosition = (getPageCount() - 1) * maxVisibleItems;
+        }
+
+        final FloatingButtonLayout layout = floatingButtonLayout;
+        final int visibleCount = Math.max(0, Math.min(maxVisibleItems, itemCount - firstVisiblePosition));
+        final int visibility = isExpanded() ? VISIBLE : INVISIBLE;
+
+        for (int i = layout.getChildCount() - 1; i >= visibleCount; i--) {
+            recycleAdapterView(layout.getChildAt(i));
+        }
+
+        for (int i = 0; i < visibleCount; i++) {
+            final int position = firstVisiblePosition + i;
+            final int viewType = adapter.getItemViewType(position);
+
+            View childView = i < layout.getChildCount() ? layout.getChildAt(i) : null;
+            if (childView != null && RecycledViewPool.getViewType(childView) != viewType) {
+                recycleAdapterView(childView);
+                childView = null;
+            }
+            if (childView == null) {
+                childView = obtainAdapterView(viewType);
+                layout.addItemInLayout(childView, i);
+            }
+
+            adapter.onBindView(childView, position);
+            childView.setVisibility(visibility);
+        }
+
+        layout.requestLayout();
+        layout.invalidate();
+        invalidatePrewarm();
+    }
+
+    private View obtainAdapterView(int viewType) {
+        View childView = recycledViewPool.getRecycledView(viewType);
+        if (childView == null) {
+            childView = adapter.onCreateView(floatingButtonLayout, viewType);
+            RecycledViewPool.setViewType(childView, viewType);
+            childView.setOnClickListener(itemClickListener);
+        }
+        return childView;
+    }
+
+    private void recycleAdapterView(View childView) {
+        childView.clearAnimation();
+        floatingButtonLayout.removeItemInLayout(childView);
+        recycledViewPool.putRecycledView(childView);
+    }
+
     public FloatingButtonMenu setOnItemClickListener(OnItemClickListener itemClickListener) {
         this.onItemClickListener = itemClickListener;
         return this;
     }
 
     public FloatingButtonMenu setAnimationHandler(FloatingButtonAnimationHandlerBase animationHandler) {
-        floatingButtonLayout.setAnimationHandler(animationHandler);
+        this.animationHandler = animationHandler;
+        if (floatingButtonLayout != null) {
+            floatingButtonLayout.setAnimationHandler(animationHandler);
+        }
+        invalidatePrewarm();
         return this;
     }
 
@@ -346,25 +1398,44 @@ public class FloatingButtonMenu extends RelativeLayout {
         return this;
     }
 
-    public FloatingButtonMenu setArc(float fromDegrees, float toDegrees) {
-        floatingButtonLayout.setArc(fromDegrees, toDegrees);
+    /**
+     * Sets a listener that is given the frame timings of every open/close animation. Passing null stops the timing.
+     * Frame timing needs Jelly Bean, on older versions the listener is never called.
+     *
+     * @param frameTimingListener
+     * @return
+     */
+    public FloatingButtonMenu setOnFrameTimingListener(OnFrameTimingListener frameTimingListener) {
+        if (frameTimingMonitor == null) {
+            if (frameTimingListener == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+                return this;
+            }
+            frameTimingMonitor = new FrameTimingMonitor(frameTimingListener);
+        } else {
+            frameTimingMonitor.setListener(frameTimingListener);
+        }
         return this;
     }
 
-    public FloatingButtonMenu setFloatingButtonSize(int width, int height) {
-        return setFloatingButtonSize(width, height, true);
+    public FloatingButtonMenu setArc(float fromDegrees, float toDegrees) {
+        this.fromDegrees = fromDegrees;
+        this.toDegrees = toDegrees;
+        if (floatingButtonLayout != null) {
+            floatingButtonLayout.setArc(fromDegrees, toDegrees);
+        }
+        invalidatePrewarm();
+        return this;
     }
 
     /**
-     * Set the size for the floating button.
+     * Set the size for the floating button. The FloatingButtonLayout picks up the new size when the floating button
+     * is laid out again.
+     *
      * @param width
      * @param height
-     * @param setParamsInFloatingButtonLayout: true if we want the FloatingButtonLayout to refresh the current param values for
-     *                                       the floating button. This causes a redraw of the layout. This should only be false
-     *                                       in cases where we know the param values are going to be refreshed eventually.
      * @return
      */
-    private FloatingButtonMenu setFloatingButtonSize(int width, int height, boolean setParamsInFloatingButtonLayout) {
+    public FloatingButtonMenu setFloatingButtonSize(int width, int height) {
         /*
         Both width and height should be greater than zero
          */
@@ -372,14 +1443,11 @@ public class FloatingButtonMenu extends RelativeLayout {
             return this;
         }
 
-        LayoutParams layoutParams = (LayoutParams) floatingButton.getLayoutParams();
+        LayoutParams layoutParams = floatingButton.getLayoutParams();
         layoutParams.width = width;
         layoutParams.height = height;
         floatingButton.setLayoutParams(layoutParams);
-
-        if (setParamsInFloatingButtonLayout) {
-            setFloatingButtonParams();
-        }
+        invalidatePrewarm();
         return this;
     }
 
@@ -388,20 +1456,29 @@ public class FloatingButtonMenu extends RelativeLayout {
     }
 
     public FloatingButtonMenu setFloatingButtonMargin(int left, int top, int right, int bottom) {
-        if (floatingButtonContainer.getPaddingLeft() == left && floatingButtonContainer.getPaddingTop() == top
-                && floatingButtonContainer.getPaddingRight() == right && floatingButtonContainer.getPaddingBottom() == bottom) {
+        if (floatingButtonMarginLeft == left && floatingButtonMarginTop == top
+                && floatingButtonMarginRight == right && floatingButtonMarginBottom == bottom) {
             /*
             No change
              */
             return this;
         }
-        floatingButtonContainer.setPadding(left, top, right, bottom);
-        floatingButtonLayout.requestLayout();
+        floatingButtonMarginLeft = left;
+        floatingButtonMarginTop = top;
+        floatingButtonMarginRight = right;
+        floatingButtonMarginBottom = bottom;
+        requestLayout();
+        invalidatePrewarm();
         return this;
     }
 
     public FloatingButtonMenu setRadius(int radius) {
-        floatingButtonLayout.setRadius(radius);
+        this.radius = radius;
+        if (floatingButtonLayout != null) {
+            floatingButtonLayout.setRadius(radius);
+            updateScrimReach();
+        }
+        invalidatePrewarm();
         return this;
     }
 
@@ -416,65 +1493,223 @@ public class FloatingButtonMenu extends RelativeLayout {
     }
 
     public FloatingButtonMenu setBackground(int color) {
-        backgroundView.setBackgroundColor(color);
+        backgroundColor = color;
+        scrim.setColor(color);
+        return this;
+    }
+
+    public int getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    /**
+     * Sets how much of the menu the scrim covers, one of {@link #SCRIM_MODE_FULL}, {@link #SCRIM_MODE_RADIAL} and
+     * {@link #SCRIM_MODE_REVEAL}. The radial modes only fill the circle of {@link #getRadius()} plus the size of the
+     * largest item around the floating button, which saves a whole screen of overdraw on large screens.
+     *
+     * @param scrimMode
+     * @return
+     */
+    public FloatingButtonMenu setScrimMode(int scrimMode) {
+        scrim.setMode(scrimMode);
         return this;
     }
 
+    public int getScrimMode() {
+        return scrim.getMode();
+    }
+
+    /**
+     * Sets where the items and the scrim are shown, either {@link #HOST_IN_LAYOUT} or {@link #HOST_IN_WINDOW}. This is
+     * meant to be set up front, an open menu is closed without animating first.
+     *
+     * @param hostMode
+     * @return
+     */
+    public FloatingButtonMenu setHostMode(int hostMode) {
+        if (this.hostMode == hostMode) {
+            return this;
+        }
+
+        if (floatingButtonLayout != null) {
+            close(false);
+            if (windowPanel != null) {
+                removeWindowPanelRunnable.run();
+            }
+            ((ViewGroup) floatingButtonLayout.getParent()).removeView(floatingButtonLayout);
+        }
+
+        this.hostMode = hostMode;
+        if (floatingButtonLayout != null) {
+            attachFloatingButtonLayout();
+        }
+        requestLayout();
+        invalidate();
+        invalidatePrewarm();
+        return this;
+    }
+
+    public int getHostMode() {
+        return hostMode;
+    }
+
+    /**
+     * Sets what happens to a touch outside of the open menu, either {@link #DISMISS_CONSUME} or
+     * {@link #DISMISS_TAP_THROUGH}. Both close the menu.
+     *
+     * @param dismissMode
+     * @return
+     */
+    public FloatingButtonMenu setDismissMode(int dismissMode) {
+        this.dismissMode = dismissMode;
+        return this;
+    }
+
+    public int getDismissMode() {
+        return dismissMode;
+    }
+
     public FloatingButtonMenu setShowBackground(boolean show) {
         if (showBackground == show) {
             return this;
         }
         showBackground = show;
         /*
-        If the background is to be shown, we set the visibility based on what the current state of the
-        menu is. If not, we simply make it invisible.
+        If the background is to be shown, we show it based on what the current state of the menu is. If not, we
+        simply hide it.
          */
-        if (showBackground) {
-            backgroundView.setVisibility(isExpanded() ? VISIBLE : INVISIBLE);
-        } else {
-            backgroundView.setVisibility(INVISIBLE);
-        }
+        scrim.jumpTo(showBackground && isExpanded());
         return this;
     }
 
+    /**
+     * Fades the scrim in or out from where it currently is. Animation handlers call this when the menu opens or
+     * closes and {@link #shouldShowBackground()} is true.
+     *
+     * @param visible
+     * @param duration: the time a full fade takes
+     */
+    public void animateScrim(boolean visible, long duration) {
+        updateScrimReach();
+        scrim.animateTo(visible, duration);
+    }
+
+    /**
+     * Centers the scrim of the radial modes on the floating button, reaching past the outermost items.
+     */
+    private void updateScrimReach() {
+        if (floatingButtonLayout == null) {
+            return;
+        }
+
+        int maxChildSize = 0;
+        for (int i = 0, count = floatingButtonLayout.getChildCount(); i < count; i++) {
+            final View child = floatingButtonLayout.getChildAt(i);
+            maxChildSize = Math.max(maxChildSize, Math.max(child.getMeasuredWidth(), child.getMeasuredHeight()));
+        }
+
+        final Point center = floatingButtonLayout.getFloatingButtonCenter();
+        scrim.setReach(floatingButtonLayout.getLeft() + center.x, floatingButtonLayout.getTop() + center.y,
+                floatingButtonLayout.getArcGeometry().getOuterRadius(radius) + maxChildSize);
+    }
+
     public float getToDegrees() {
-        return floatingButtonLayout.getToDegrees();
+        return toDegrees;
     }
 
     public float getFromDegrees() {
-        return floatingButtonLayout.getFromDegrees();
+        return fromDegrees;
+    }
+
+    /**
+     * Returns the geometry used to place the children on the arc. The animation handlers use it to compute child
+     * frames without allocating. Until the menu hierarchy is created this is a geometry holding the arc and the number
+     * of items added so far, laid out on a single ring.
+     *
+     * @return
+     */
+    public ArcGeometry getArcGeometry() {
+        if (floatingButtonLayout != null) {
+            return floatingButtonLayout.getArcGeometry();
+        }
+
+        if (pendingArcGeometry == null) {
+            pendingArcGeometry = new ArcGeometry(fromDegrees, toDegrees);
+        }
+        pendingArcGeometry.setArc(fromDegrees, toDegrees);
+        pendingArcGeometry.setChildCount(getItemCount());
+        return pendingArcGeometry;
     }
 
+    /**
+     * @return the top left corner of the floating button in the FloatingButtonLayout, or null until the menu
+     * hierarchy is created
+     */
     public Point getFloatingButtonTopCornerCoor() {
-        return floatingButtonLayout.getFloatingButtonTopCornerCoor();
+        return floatingButtonLayout != null ? floatingButtonLayout.getFloatingButtonTopCornerCoor() : null;
     }
 
+    /**
+     * @return the center of the floating button in the FloatingButtonLayout, or null until the menu hierarchy is
+     * created
+     */
     public Point getFloatingButtonCenter() {
-        return floatingButtonLayout.getFloatingButtonCenter();
+        return floatingButtonLayout != null ? floatingButtonLayout.getFloatingButtonCenter() : null;
     }
 
     public boolean isExpanded() {
-        return floatingButtonLayout.isExpanded();
+        return floatingButtonLayout != null && floatingButtonLayout.isExpanded();
     }
 
     public int getRadius() {
-        return floatingButtonLayout.getRadius();
+        return radius;
     }
 
+    /**
+     * @return the number of children of the FloatingButtonLayout, 0 until the menu hierarchy is created, see
+     * {@link #getItemCount()} for the items added so far
+     */
     public int getMenuChildCount() {
-        return floatingButtonLayout.getChildCount();
+        return floatingButtonLayout != null ? floatingButtonLayout.getChildCount() : 0;
     }
 
+    /**
+     * @return the child of the FloatingButtonLayout at the given index, null until the menu hierarchy is created
+     */
     public View getMenuChildAt(int index) {
-        return floatingButtonLayout.getChildAt(index);
+        return floatingButtonLayout != null ? floatingButtonLayout.getChildAt(index) : null;
+    }
+
+    /**
+     * Starts the open or close requested while the animation handler was animating, if any. Animation handlers call
+     * this once they finish animating, before notifying the {@link OnStateChangeListener}. When nothing was queued
+     * and the menu has closed, a menu hosted in the window removes its panel.
+     *
+     * @return true if a new transition was started, in which case the listener is notified when that one ends
+     */
+    public boolean applyQueuedState() {
+        if (floatingButtonLayout == null) {
+            return false;
+        }
+        if (floatingButtonLayout.applyQueuedState()) {
+            return true;
+        }
+
+        detachWindowPanelIfClosed();
+        return false;
     }
 
     public OnStateChangeListener getOnStateChangeListener() {
         return onStateChangeListener;
     }
 
-    public View getBackgroundView() {
-        return backgroundView;
+    /**
+     * Returns the monitor the animation handlers report their start and end to, or null if frame timing isn't enabled.
+     *
+     * @return
+     */
+    public FrameTimingMonitor getFrameTimingMonitor() {
+        return frameTimingMonitor;
     }
 
     public boolean shouldShowBackground() {
@@ -0,0 +1,66 @@
+package com.floatingbuttonmenu;
+
+import android.database.DataSetObservable;
+import android.database.DataSetObserver;
+import android.view.View;
+import android.view.ViewGroup;
+
+/**
+ * <p>Supplies the items of a {@link FloatingButtonMenu} set through {@link FloatingButtonMenu#setAdapter(FloatingButtonMenuAdapter)}.</p>
+ * <p/>
+ * <p>Only the items of the page currently shown by the menu are turned into views. Views that scroll out of the page
+ * are kept in a pool keyed by their view type and handed back to {@link #onBindView(android.view.View, int)} for other
+ * items of the same type, so the number of live views is bounded by the page size rather than the item count.</p>
+ */
+public abstract class FloatingButtonMenuAdapter {
+
+    private final DataSetObservable mDataSetObservable = new DataSetObservable();
+
+    /**
+     * @return the total number of items in the menu
+     */
+    public abstract int getItemCount();
+
+    /**
+     * Returns the view type of the item at the given position. Views are only reused for items of the same type.
+     *
+     * @param position
+     * @return
+     */
+    public int getItemViewType(int position) {
+        return 0;
+    }
+
+    /**
+     * Creates a new view for the given view type. The view shouldn't be bound to any item here, that is done by
+     * {@link #onBindView(android.view.View, int)}, and it shouldn't be given a click listener since the menu sets its own.
+     *
+     * @param parent:   the layout the view will be added to
+     * @param viewType: the type returned by {@link #getItemViewType(int)}
+     * @return
+     */
+    public abstract View onCreateView(ViewGroup parent, int viewType);
+
+    /**
+     * Binds the item at the given position to a view, which may have been used for another item before.
+     *
+     * @param view
+     * @param position
+     */
+    public abstract void onBindView(View view, int position);
+
+    /**
+     * Notifies the menu that the items have changed, so the views of the current page are bound again.
+     */
+    public void notifyDataSetChanged() {
+        mDataSetObservable.notifyChanged();
+    }
+
+    void registerDataSetObserver(DataSetObserver observer) {
+        mDataSetObservable.registerObserver(observer);
+    }
+
+    void unregisterDataSetObserver(DataSetObserver observer) {
+        mDataSetObservable.unregisterObserver(observer);
+    }
+}
@@ -0,0 +1,90 @@
+package com.floatingbuttonmenu;
+
+import android.os.Build;
+import android.view.Choreographer;
+
+import com.floatingbuttonmenu.core.FrameStats;
+
+/**
+ * Hooks {@link Choreographer} frame callbacks for the length of an open or close animation and reports the collected
+ * {@link FrameStats} to the menu's {@link FloatingButtonMenu.OnFrameTimingListener}. A single frame callback reposts
+ * itself and a single stats object is reused, so the monitor doesn't allocate per frame.
+ * <p/>
+ * Choreographer is only available from Jelly Bean, on older versions nothing is reported. The frame callback lives in
+ * a nested class that is only loaded on Jelly Bean and up, so the monitor itself can be loaded on any version.
+ */
+public class FrameTimingMonitor {
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final FrameStats mFrameStats = new FrameStats();
+    private FloatingButtonMenu.OnFrameTimingListener mListener;
+    private boolean mRunning;
+    private FrameCallback mFrameCallback;
+
+    FrameTimingMonitor(FloatingButtonMenu.OnFrameTimingListener listener) {
+        mListener = listener;
+    }
+
+    void setListener(FloatingButtonMenu.OnFrameTimingListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * Starts recording frames. If a run is already being recorded it is discarded.
+     *
+     * @param expectedDurationMillis: how long the animation is configured to take
+     */
+    public void start(long expectedDurationMillis) {
+        if (mListener == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            return;
+        }
+
+        if (mFrameCallback == null) {
+            mFrameCallback = new FrameCallback();
+        }
+
+        final Choreographer choreographer = Choreographer.getInstance();
+        if (mRunning) {
+            choreographer.removeFrameCallback(mFrameCallback);
+        }
+
+        mRunning = true;
+        mFrameStats.start(System.nanoTime(), expectedDurationMillis * NANOS_PER_MILLI);
+        choreographer.postFrameCallback(mFrameCallback);
+    }
+
+    /**
+     * Stops recording and delivers the report.
+     *
+     * @param opened: whether the menu was opening or closing
+     */
+    public void stop(boolean opened) {
+        if (!mRunning) {
+            return;
+        }
+
+        mRunning = false;
+        Choreographer.getInstance().removeFrameCallback(mFrameCallback);
+        mFrameStats.stop(System.nanoTime());
+
+        if (mListener != null) {
+            mListener.onFrameTiming(opened, mFrameStats);
+        }
+    }
+
+    /**
+     * Records every frame while the monitor is running. Only created on Jelly Bean and up.
+     */
+    private class FrameCallback implements Choreographer.FrameCallback {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (!mRunning) {
+                return;
+            }
+
+            mFrameStats.onFrame(frameTimeNanos);
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+}
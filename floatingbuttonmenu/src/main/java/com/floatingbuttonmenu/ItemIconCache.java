@@ -0,0 +1,77 @@
+package com.floatingbuttonmenu;
+
+import android.graphics.Bitmap;
+import android.util.LruCache;
+
+/**
+ * <p>Process wide cache of the item icons decoded by {@link FloatingButtonMenu#addItem(int)} and
+ * {@link FloatingButtonMenu#addItem(android.net.Uri)}. It is shared by every menu, so the same icon shown at the same
+ * size in several menus is only decoded and held once.</p>
+ * <p/>
+ * <p>The cache is bounded by the byte size of the bitmaps it holds. The budget defaults to {@link #DEFAULT_MAX_BYTES_FRACTION}
+ * of the heap and can be changed with {@link #setMaxBytes(int)}.</p>
+ */
+public final class ItemIconCache {
+
+    /**
+     * The default budget is the maximum heap size divided by this value.
+     */
+    public static final int DEFAULT_MAX_BYTES_FRACTION = 32;
+
+    private static int sMaxBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / DEFAULT_MAX_BYTES_FRACTION, Integer.MAX_VALUE);
+    private static LruCache<String, Bitmap> sCache;
+
+    private ItemIconCache() {
+    }
+
+    /**
+     * Sets the number of bytes the cached icons may take up. The cache is emptied when the budget changes, so this
+     * is best called once when the application starts.
+     *
+     * @param maxBytes
+     */
+    public static synchronized void setMaxBytes(int maxBytes) {
+        if (maxBytes <= 0 || sMaxBytes == maxBytes) {
+            return;
+        }
+
+        sMaxBytes = maxBytes;
+        if (sCache != null) {
+            sCache.evictAll();
+            sCache = null;
+        }
+    }
+
+    public static synchronized int getMaxBytes() {
+        return sMaxBytes;
+    }
+
+    /**
+     * Drops every cached icon, e.g. when the application is asked to trim its memory.
+     */
+    public static synchronized void clear() {
+        if (sCache != null) {
+            sCache.evictAll();
+        }
+    }
+
+    static Bitmap get(String key) {
+        return getCache().get(key);
+    }
+
+    static void put(String key, Bitmap bitmap) {
+        getCache().put(key, bitmap);
+    }
+
+    private static synchronized LruCache<String, Bitmap> getCache() {
+        if (sCache == null) {
+            sCache = new LruCache<String, Bitmap>(sMaxBytes) {
+                @Override
+                protected int sizeOf(String key, Bitmap bitmap) {
+                    return bitmap.getByteCount();
+                }
+            };
+        }
+        return sCache;
+    }
+}
@@ -0,0 +1,205 @@
+package com.floatingbuttonmenu;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.widget.ImageView;
+
+import com.floatingbuttonmenu.core.BitmapSampling;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Decodes item icons on a small pool of background threads, downsampled to the size of the item, and hands them to
+ * their ImageView on the main thread. Decoded icons go into the {@link ItemIconCache}, and icons already in it are set
+ * right away.
+ * <p/>
+ * The key of the icon an ImageView is waiting for is kept in a tag, so a result that arrives after the view has been
+ * given another icon is dropped. An icon that is already being decoded isn't decoded again: the view is added to the
+ * targets of the running decode instead.
+ * <p/>
+ * Icons are loaded from the main thread.
+ */
+class ItemIconLoader {
+
+    private static final int THREAD_COUNT = 2;
+
+    private static ExecutorService sExecutor;
+    private static Handler sMainHandler;
+
+    /*
+    The decodes that haven't delivered their icon yet, by key. Only used on the main thread.
+     */
+    private static final HashMap<String, IconRequest> sPendingRequests = new HashMap<String, IconRequest>();
+
+    private ItemIconLoader() {
+    }
+
+    static void load(ImageView target, int resId, int size) {
+        load(target, resId, null, size);
+    }
+
+    static void load(ImageView target, Uri uri, int size) {
+        load(target, 0, uri, size);
+    }
+
+    private static void load(final ImageView target, final int resId, final Uri uri, final int size) {
+        final String key = (uri != null ? uri.toString() : "res:" + resId) + '@' + size;
+        target.setTag(R.id.floating_button_menu_icon_key, key);
+
+        Bitmap bitmap = ItemIconCache.get(key);
+        if (bitmap != null) {
+            target.setImageBitmap(bitmap);
+            return;
+        }
+
+        IconRequest request = sPendingRequests.get(key);
+        if (request != null) {
+            request.addTarget(target);
+            return;
+        }
+
+        request = new IconRequest(target.getContext().getApplicationContext(), key, resId, uri, size);
+        request.addTarget(target);
+        sPendingRequests.put(key, request);
+        getExecutor().execute(request);
+    }
+
+    /**
+     * A single decode of an icon, run on the executor, and the ImageViews waiting for it. The icon is handed to the
+     * targets on the main thread, to those that still wait for this key.
+     */
+    private static class IconRequest implements Runnable {
+        private final Context mContext;
+        private final String mKey;
+        private final int mResId;
+        private final Uri mUri;
+        private final int mSize;
+        private final ArrayList<ImageView> mTargets = new ArrayList<ImageView>(1);
+        private Bitmap mBitmap;
+
+        IconRequest(Context context, String key, int resId, Uri uri, int size) {
+            mContext = context;
+            mKey = key;
+            mResId = resId;
+            mUri = uri;
+            mSize = size;
+        }
+
+        void addTarget(ImageView target) {
+            if (!mTargets.contains(target)) {
+                mTargets.add(target);
+            }
+        }
+
+        @Override
+        public void run() {
+            mBitmap = decode(mContext, mResId, mUri, mSize);
+            if (mBitmap != null) {
+                ItemIconCache.put(mKey, mBitmap);
+            }
+
+            getMainHandler().post(new Runnable() {
+                @Override
+                public void run() {
+                    deliver();
+                }
+            });
+        }
+
+        private void deliver() {
+            sPendingRequests.remove(mKey);
+
+            for (int i = 0, size = mTargets.size(); i < size; i++) {
+                final ImageView target = mTargets.get(i);
+                if (!mKey.equals(target.getTag(R.id.floating_button_menu_icon_key))) {
+                    continue;
+                }
+                if (mBitmap != null) {
+                    target.setImageBitmap(mBitmap);
+                } else if (mUri == null) {
+                    /*
+                    Drawables that aren't bitmaps, e.g. xml drawables, can't be decoded here.
+                     */
+                    target.setImageResource(mResId);
+                }
+            }
+            mTargets.clear();
+        }
+    }
+
+    /**
+     * Reads the bounds of the image first, so that the image itself is decoded with a sample size that brings it
+     * close to the item size.
+     */
+    private static Bitmap decode(Context context, int resId, Uri uri, int size) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        decode(context, resId, uri, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            return null;
+        }
+
+        options.inSampleSize = BitmapSampling.computeSampleSize(options.outWidth, options.outHeight, size, size);
+        options.inJustDecodeBounds = false;
+        return decode(context, resId, uri, options);
+    }
+
+    private static Bitmap decode(Context context, int resId, Uri uri, BitmapFactory.Options options) {
+        if (uri == null) {
+            return BitmapFactory.decodeResource(context.getResources(), resId, options);
+        }
+
+        InputStream inputStream = null;
+        try {
+            inputStream = context.getContentResolver().openInputStream(uri);
+            return BitmapFactory.decodeStream(inputStream, null, options);
+        } catch (IOException e) {
+            return null;
+        } finally {
+            if (inputStream != null) {
+                try {
+                    inputStream.close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+    private static synchronized ExecutorService getExecutor() {
+        if (sExecutor == null) {
+            sExecutor = Executors.newFixedThreadPool(THREAD_COUNT, new ThreadFactory() {
+                @Override
+                public Thread newThread(final Runnable runnable) {
+                    Thread thread = new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            runnable.run();
+                        }
+                    }, "FloatingButtonMenu icon decoder");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return sExecutor;
+    }
+
+    private static synchronized Handler getMainHandler() {
+        if (sMainHandler == null) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+        }
+        return sMainHandler;
+    }
+}
@@ -0,0 +1,57 @@
+package com.floatingbuttonmenu;
+
+import android.util.SparseArray;
+import android.view.View;
+
+import java.util.ArrayList;
+
+/**
+ * Holds the views of adapter items that are no longer shown, keyed by their view type, so they can be bound to other
+ * items instead of being inflated again. Every type keeps at most {@link #MAX_SCRAP_PER_TYPE} views.
+ */
+class RecycledViewPool {
+
+    static final int MAX_SCRAP_PER_TYPE = FloatingButtonMenu.DEFAULT_MAX_VISIBLE_ITEMS;
+
+    private final SparseArray<ArrayList<View>> mScrap = new SparseArray<ArrayList<View>>();
+
+    /**
+     * Returns a pooled view of the given type, or null if there is none.
+     *
+     * @param viewType
+     * @return
+     */
+    View getRecycledView(int viewType) {
+        final ArrayList<View> scrap = mScrap.get(viewType);
+        if (scrap == null || scrap.isEmpty()) {
+            return null;
+        }
+        return scrap.remove(scrap.size() - 1);
+    }
+
+    void putRecycledView(View view) {
+        final int viewType = getViewType(view);
+
+        ArrayList<View> scrap = mScrap.get(viewType);
+        if (scrap == null) {
+            scrap = new ArrayList<View>(MAX_SCRAP_PER_TYPE);
+            mScrap.put(viewType, scrap);
+        }
+        if (scrap.size() < MAX_SCRAP_PER_TYPE) {
+            scrap.add(view);
+        }
+    }
+
+    void clear() {
+        mScrap.clear();
+    }
+
+    static void setViewType(View view, int viewType) {
+        view.setTag(R.id.floating_button_menu_view_type, viewType);
+    }
+
+    static int getViewType(View view) {
+        final Object viewType = view.getTag(R.id.floating_button_menu_view_type);
+        return viewType == null ? 0 : (Integer) viewType;
+    }
+}
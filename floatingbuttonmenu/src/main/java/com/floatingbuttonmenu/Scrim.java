@@ -0,0 +1,176 @@
+package com.floatingbuttonmenu;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.view.View;
+
+/**
+ * The dimming background of the menu, drawn by the menu itself below its children instead of being a full screen view.
+ * Its visibility is animated through a single reused {@link ValueAnimator}. In the radial and reveal modes only the
+ * circle the menu reaches is filled and invalidated, which keeps the fill rate down on large screens.
+ */
+class Scrim implements ValueAnimator.AnimatorUpdateListener {
+
+    private View mHost;
+    private final Paint mPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final ValueAnimator mAnimator;
+
+    private int mColor;
+    private int mMode = FloatingButtonMenu.SCRIM_MODE_FULL;
+    private float mProgress;
+    private boolean mVisible;
+    private Runnable mHiddenAction;
+
+    private float mCenterX;
+    private float mCenterY;
+    private float mReach;
+
+    Scrim(View host) {
+        mHost = host;
+        mAnimator = ValueAnimator.ofFloat(0.0f, 1.0f);
+        mAnimator.addUpdateListener(this);
+        mAnimator.addListener(new AnimatorListenerAdapter() {
+            @Override
+            public void onAnimationEnd(Animator animation) {
+                final Runnable hiddenAction = mHiddenAction;
+                mHiddenAction = null;
+                if (hiddenAction != null && !mVisible) {
+                    hiddenAction.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Sets the view the scrim is drawn by, which is invalidated when the scrim changes.
+     *
+     * @param host
+     */
+    void setHost(View host) {
+        mHost = host;
+        invalidate();
+    }
+
+    void setColor(int color) {
+        mColor = color;
+        invalidate();
+    }
+
+    void setMode(int mode) {
+        invalidate();
+        mMode = mode;
+        invalidate();
+    }
+
+    int getMode() {
+        return mMode;
+    }
+
+    /**
+     * Sets the circle filled in the radial and reveal modes, in the coordinates of the host.
+     *
+     * @param centerX
+     * @param centerY
+     * @param reach:  radius of the circle
+     */
+    void setReach(float centerX, float centerY, float reach) {
+        if (mCenterX == centerX && mCenterY == centerY && mReach == reach) {
+            return;
+        }
+
+        invalidate();
+        mCenterX = centerX;
+        mCenterY = centerY;
+        mReach = reach;
+        invalidate();
+    }
+
+    /**
+     * Fades the scrim in or out from wherever it currently is.
+     *
+     * @param visible
+     * @param duration: the time a full fade takes, shortened in proportion when the scrim is part of the way there
+     */
+    void animateTo(boolean visible, long duration) {
+        final float target = visible ? 1.0f : 0.0f;
+        mHiddenAction = null;
+        mVisible = visible;
+        mAnimator.cancel();
+        if (mProgress == target) {
+            return;
+        }
+
+        mAnimator.setFloatValues(mProgress, target);
+        mAnimator.setDuration((long) (duration * Math.abs(target - mProgress)));
+        mAnimator.start();
+    }
+
+    /**
+     * Shows or hides the scrim right away.
+     *
+     * @param visible
+     */
+    void jumpTo(boolean visible) {
+        mHiddenAction = null;
+        mVisible = visible;
+        mAnimator.cancel();
+        mProgress = visible ? 1.0f : 0.0f;
+        invalidate();
+    }
+
+    /**
+     * Runs the action once the scrim has faded out. A scrim that isn't fading out is hidden right away, and the action
+     * is dropped if the scrim is shown again before it has faded out.
+     *
+     * @param action
+     */
+    void runWhenHidden(Runnable action) {
+        if (!mVisible && mAnimator.isRunning()) {
+            mHiddenAction = action;
+            return;
+        }
+
+        jumpTo(false);
+        action.run();
+    }
+
+    @Override
+    public void onAnimationUpdate(ValueAnimator animation) {
+        mProgress = (Float) animation.getAnimatedValue();
+        invalidate();
+    }
+
+    void draw(Canvas canvas) {
+        if (mProgress <= 0.0f || Color.alpha(mColor) == 0) {
+            return;
+        }
+
+        mPaint.setColor(mColor);
+        switch (mMode) {
+            case FloatingButtonMenu.SCRIM_MODE_RADIAL:
+                mPaint.setAlpha((int) (Color.alpha(mColor) * mProgress));
+                canvas.drawCircle(mCenterX, mCenterY, mReach, mPaint);
+                break;
+            case FloatingButtonMenu.SCRIM_MODE_REVEAL:
+                canvas.drawCircle(mCenterX, mCenterY, mReach * mProgress, mPaint);
+                break;
+            default:
+                mPaint.setAlpha((int) (Color.alpha(mColor) * mProgress));
+                canvas.drawPaint(mPaint);
+                break;
+        }
+    }
+
+    private void invalidate() {
+        if (mMode == FloatingButtonMenu.SCRIM_MODE_FULL) {
+            mHost.invalidate();
+        } else {
+            mHost.invalidate((int) (mCenterX - mReach) - 1, (int) (mCenterY - mReach) - 1,
+                    (int) (mCenterX + mReach) + 1, (int) (mCenterY + mReach) + 1);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.floatingbuttonmenu;
+
+import android.graphics.Canvas;
+import android.view.KeyEvent;
+import android.view.MotionEvent;
+import android.view.ViewGroup;
+
+/**
+ * <p>The panel a menu hosted in the window, see {@link FloatingButtonMenu#HOST_IN_WINDOW}, shows its items and scrim
+ * in. It is added on top of the root view of the window when the menu opens and removed once the menu has closed, so
+ * while the menu is closed the rest of the screen doesn't pay for its touch handling, drawing or focus.</p>
+ * <p/>
+ * <p>A ViewOverlay can't be used for this since the views in it don't receive touches.</p>
+ */
+class WindowOverlayPanel extends ViewGroup {
+
+    private final FloatingButtonMenu mMenu;
+    private final Scrim mScrim;
+
+    WindowOverlayPanel(FloatingButtonMenu menu, Scrim scrim) {
+        super(menu.getContext());
+        mMenu = menu;
+        mScrim = scrim;
+
+        /*
+        The panel takes the focus while it's shown so that the menu can be closed with the back key.
+         */
+        setFocusable(true);
+        setFocusableInTouchMode(true);
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        final int width = MeasureSpec.getSize(widthMeasureSpec);
+        final int height = MeasureSpec.getSize(heightMeasureSpec);
+        setMeasuredDimension(width, height);
+
+        final int childWidthSpec = MeasureSpec.makeMeasureSpec(width, MeasureSpec.EXACTLY);
+        final int childHeightSpec = MeasureSpec.makeMeasureSpec(height, MeasureSpec.EXACTLY);
+        for (int i = 0, count = getChildCount(); i < count; i++) {
+            getChildAt(i).measure(childWidthSpec, childHeightSpec);
+        }
+    }
+
+    @Override
+    protected void onLayout(boolean changed, int l, int t, int r, int b) {
+        mMenu.layoutMenuHierarchy(this, 0, 0, r - l, b - t);
+    }
+
+    @Override
+    public boolean shouldDelayChildPressedState() {
+        return false;
+    }
+
+    @Override
+    protected void dispatchDraw(Canvas canvas) {
+        mScrim.draw(canvas);
+        super.dispatchDraw(canvas);
+    }
+
+    /**
+     * Returning false for a touch outside of the menu in tap-through mode lets the root view of the window hand the
+     * gesture to the views below the panel.
+     */
+    @Override
+    public boolean dispatchTouchEvent(MotionEvent ev) {
+        return !mMenu.passOutsideTouchThrough(ev) && super.dispatchTouchEvent(ev);
+    }
+
+    @Override
+    public boolean onInterceptTouchEvent(MotionEvent ev) {
+        return mMenu.interceptMenuTouch(ev) || super.onInterceptTouchEvent(ev);
+    }
+
+    /**
+     * Touches that neither the items nor the menu handle, such as the ones on the floating button, go through to the
+     * views below the panel.
+     */
+    @Override
+    public boolean onTouchEvent(MotionEvent ev) {
+        return mMenu.handleMenuTouch(ev) || super.onTouchEvent(ev);
+    }
+
+    @Override
+    public boolean onKeyPreIme(int keyCode, KeyEvent event) {
+        return mMenu.onKeyPreIme(keyCode, event) || super.onKeyPreIme(keyCode, event);
+    }
+}
@@ -5,15 +5,21 @@ import android.view.animation.Animation;
 import android.view.animation.AnimationSet;
 
 import com.floatingbuttonmenu.FloatingButtonMenu;
+import com.floatingbuttonmenu.core.MenuTimeline;
 
-public class AlphaFloatingButtonAnimationHandler extends FloatingButtonAnimationHandlerBase {
+public class AlphaFloatingButtonAnimationHandler extends ViewAnimationFloatingButtonAnimationHandlerBase {
 
     protected AlphaFloatingButtonAnimationHandler(FloatingButtonMenu floatingButtonMenu) {
         super(floatingButtonMenu);
     }
 
     @Override
-    protected Animation getAnimation(View childView, int index, float degrees, boolean expanded) {
+    public int getAnimatedProperties() {
+        return MenuTimeline.PROPERTY_ALPHA;
+    }
+
+    @Override
+    protected Animation getAnimation(View childView, int index, int arcIndex, boolean expanded) {
         AnimationSet animationSet = new AnimationSet(true);
 
         Animation alphaAnimation = getAlphaAnimation(expanded);
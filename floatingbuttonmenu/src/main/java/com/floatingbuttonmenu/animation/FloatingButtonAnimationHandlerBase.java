@@ -1,22 +1,26 @@
 package com.floatingbuttonmenu.animation;
 
 import android.content.Context;
-import android.graphics.Point;
-import android.graphics.Rect;
 import android.view.View;
-import android.view.animation.AlphaAnimation;
-import android.view.animation.Animation;
 import android.view.animation.DecelerateInterpolator;
 import android.view.animation.Interpolator;
 import android.view.animation.OvershootInterpolator;
-import android.view.animation.RotateAnimation;
-import android.view.animation.TranslateAnimation;
 
 import com.floatingbuttonmenu.FloatingButtonMenu;
+import com.floatingbuttonmenu.FrameTimingMonitor;
+import com.floatingbuttonmenu.core.ArcGeometry;
+import com.floatingbuttonmenu.core.MenuTimeline;
+import com.floatingbuttonmenu.core.StaggerScheduler;
+import com.floatingbuttonmenu.core.StaggerTiming;
 
 /**
  * Base class for making animation handlers for the FloatingButtonLayout. Any class extending this class should also implement a Builder
  * which extends this class's Builder class.
+ * <p/>
+ * This holds what every handler shares: the timing settings, the stagger, the scrim, hardware layers and the end of a
+ * transition. How the children are animated is up to the subclasses, see
+ * {@link ViewAnimationFloatingButtonAnimationHandlerBase} for view animations and
+ * {@link PropertyFloatingButtonAnimationHandlerBase} for render properties.
  */
 public abstract class FloatingButtonAnimationHandlerBase {
 
@@ -30,136 +34,142 @@ public abstract class FloatingButtonAnimationHandlerBase {
     protected long duration;
     protected Interpolator openInterpolator;
     protected Interpolator closeInterpolator;
+    protected boolean useHardwareLayers;
+    protected StaggerScheduler staggerScheduler = StaggerTiming.LINEAR;
 
     private boolean mIsAnimating;
 
+    /*
+    Whether the children being staggered are opening or closing, so that getChildStartOffset can work out the ring of a
+    child from its transformed index.
+     */
+    private boolean mStaggerExpanded;
+
+    private final MenuTimeline mTimeline = new MenuTimeline();
+
     protected FloatingButtonAnimationHandlerBase(FloatingButtonMenu floatingButtonMenu) {
         this.mFloatingButtonMenu = floatingButtonMenu;
         this.mContext = floatingButtonMenu.getContext();
     }
 
-    public void animateMenu() {
-        mIsAnimating = true;
-
-        final int count = mFloatingButtonMenu.getMenuChildCount();
-        final float toDegrees = mFloatingButtonMenu.getToDegrees();
-        final float fromDegrees = mFloatingButtonMenu.getFromDegrees();
-        final boolean expanded = mFloatingButtonMenu.isExpanded();
-
-        final float degreesPerChild = (toDegrees - fromDegrees) / (count - 1);
-
-        float degrees = fromDegrees;
-
-        for (int i = 0; i < count; i++) {
-            final View childView = mFloatingButtonMenu.getMenuChildAt(i);
-
-            int transformedIndex = getTransformedIndex(i, count, expanded);
-
-            Animation animation = getAnimation(childView, transformedIndex, degrees, expanded);
-
-            final boolean lastItem = transformedIndex == count - 1;
-            final boolean firstItem = transformedIndex == 0;
-
-
-            /*
-            We want the background to be visible when the view is opening and we are about to animate
-            the first item.
-             */
-            if (firstItem && expanded) {
-                handleBackgroundView(expanded);
-            }
-            animation.setAnimationListener(new Animation.AnimationListener() {
-                @Override
-                public void onAnimationStart(Animation animation) {
-                    if (expanded) {
-                        childView.setVisibility(View.VISIBLE);
-                    }
-                }
-
-                @Override
-                public void onAnimationEnd(Animation animation) {
-                    if (!expanded) {
-                        childView.setVisibility(View.INVISIBLE);
-                    }
-                    if (lastItem) {
-                        mIsAnimating = false;
-
-                        FloatingButtonMenu.OnStateChangeListener menuStateListener = mFloatingButtonMenu.getOnStateChangeListener();
-                        if (menuStateListener != null) {
-                            menuStateListener.onMenuStateChanged(expanded);
-                        }
-
-                        /*
-                        We want the background to be invisible when the view is closing and we have
-                        finished animating everything
-                        */
-                        if (!expanded) {
-                            handleBackgroundView(expanded);
-                        }
-                    }
-                }
-
-                @Override
-                public void onAnimationRepeat(Animation animation) {
-
-                }
-            });
-
-            childView.setAnimation(animation);
-            degrees += degreesPerChild;
-        }
-    }
-
-    protected Animation getTranslateAnimation(View childView, float degrees, boolean expanded) {
-        final Point coor = mFloatingButtonMenu.getFloatingButtonTopCornerCoor();
-        final int xCoor = coor.x;
-        final int yCoor = coor.y;
-
-        final Point center = mFloatingButtonMenu.getFloatingButtonCenter();
-        final int xCenter = center.x;
-        final int yCenter = center.y;
+    /**
+     * Animates the children to the state the menu is now in. The menu calls this once it has changed state, and again
+     * while animating if the handler is {@link #isReversible()}. The handler calls {@link #onMenuAnimationEnd(boolean)}
+     * once every child is done.
+     */
+    public abstract void animateMenu();
 
-        final int radius = expanded ? mFloatingButtonMenu.getRadius() : 0;
+    /**
+     * Does what the next open needs ahead of it, so that it doesn't have to be done on the first frame. The menu calls
+     * this while it's closed, see {@link FloatingButtonMenu#prewarm()}. Handlers with nothing to build ahead leave it
+     * as is.
+     */
+    public void prewarm() {
+    }
 
-        Rect childFrame = FloatingButtonMenu.computeChildFrame(xCenter, yCenter, radius, degrees, childView.getMeasuredWidth(), childView.getMeasuredHeight());
+    /**
+     * Starts the frame timing of the menu, if enabled. Handlers should call this when they start animating the menu.
+     *
+     * @param count: number of children being animated
+     */
+    protected void startFrameTiming(int count) {
+        FrameTimingMonitor frameTimingMonitor = mFloatingButtonMenu.getFrameTimingMonitor();
+        if (frameTimingMonitor != null) {
+            frameTimingMonitor.start(duration + (count > 0 ? getChildStartOffset(count - 1) : 0));
+        }
+    }
 
-        int fromX = expanded ? Math.abs(childFrame.left - xCoor) : (childView.getLeft() - childFrame.left);
-        int fromY = expanded ? Math.abs(childFrame.top - yCoor) : (childView.getTop() - childFrame.top);
+    /**
+     * Called by the handler once every child has finished animating.
+     *
+     * @param expanded: whether the menu was opening or closing
+     */
+    protected void onMenuAnimationEnd(boolean expanded) {
+        mIsAnimating = false;
 
-        return new TranslateAnimation(TranslateAnimation.ABSOLUTE, fromX, TranslateAnimation.ABSOLUTE, 0,
-                TranslateAnimation.ABSOLUTE, fromY, TranslateAnimation.ABSOLUTE, 0);
-    }
+        FrameTimingMonitor frameTimingMonitor = mFloatingButtonMenu.getFrameTimingMonitor();
+        if (frameTimingMonitor != null) {
+            frameTimingMonitor.stop(expanded);
+        }
 
-    protected Animation getAlphaAnimation(boolean expanded) {
-        float fromAlpha = expanded ? 0.0f : 1.0f;
-        float toAlpha = expanded ? 1.0f : 0.0f;
+        /*
+        We want the background to be invisible when the view is closing and we have
+        finished animating everything
+        */
+        if (!expanded) {
+            handleBackgroundView(expanded);
+        }
 
-        return new AlphaAnimation(fromAlpha, toAlpha);
-    }
+        /*
+        A toggle that came in while animating starts right away, and the listener only hears about the state the menu
+        finally settles in.
+         */
+        if (mFloatingButtonMenu.applyQueuedState()) {
+            return;
+        }
 
-    private Animation getBackgroundAlphaAnimation(boolean expanded) {
-        Animation alphaAnimation = getAlphaAnimation(expanded);
-        alphaAnimation.setDuration(BG_DURATION);
-        return alphaAnimation;
+        FloatingButtonMenu.OnStateChangeListener menuStateListener = mFloatingButtonMenu.getOnStateChangeListener();
+        if (menuStateListener != null) {
+            menuStateListener.onMenuStateChanged(mFloatingButtonMenu.isExpanded());
+        }
     }
 
-    private void handleBackgroundView(boolean expanded) {
+    /**
+     * Fades the scrim of the menu in or out. The scrim is drawn by the menu itself, so it needs no view or layer of
+     * its own.
+     *
+     * @param expanded
+     */
+    protected void handleBackgroundView(boolean expanded) {
         if (!mFloatingButtonMenu.shouldShowBackground()) {
             return;
         }
-        View backgroundView = mFloatingButtonMenu.getBackgroundView();
-        Animation animation = getBackgroundAlphaAnimation(expanded);
+        mFloatingButtonMenu.animateScrim(expanded, BG_DURATION);
+    }
 
-        backgroundView.startAnimation(animation);
-        backgroundView.setVisibility(expanded ? View.VISIBLE : View.INVISIBLE);
+    /**
+     * Moves the view to a hardware layer while it animates, so it isn't re-rasterized on every frame. Does nothing
+     * unless hardware layers are enabled for this handler.
+     *
+     * @param view
+     */
+    protected void startHardwareLayer(View view) {
+        if (useHardwareLayers) {
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        }
     }
 
-    protected Animation getRotateAnimation() {
-        return new RotateAnimation(0.0f, 1440.0f, RotateAnimation.RELATIVE_TO_SELF, .5f, RotateAnimation.RELATIVE_TO_SELF, .5f);
+    /**
+     * Drops the layer set by {@link #startHardwareLayer(View)} once the view has finished animating.
+     *
+     * @param view
+     */
+    protected void endHardwareLayer(View view) {
+        if (useHardwareLayers) {
+            view.setLayerType(View.LAYER_TYPE_NONE, null);
+        }
     }
 
+    /**
+     * Returns the start offset of the child given by the {@link StaggerScheduler} of this handler, for the direction
+     * last passed to {@link #setStaggerDirection(boolean)}. The arc geometry must already hold the current child count.
+     *
+     * @param index: the transformed index of the child
+     * @return
+     */
     protected long getChildStartOffset(int index) {
-        return index * startOffsetBetweenEachChild;
+        return StaggerTiming.getChildStartOffset(staggerScheduler, mFloatingButtonMenu.getArcGeometry(), index,
+                mStaggerExpanded, startOffsetBetweenEachChild);
+    }
+
+    /**
+     * Tells {@link #getChildStartOffset(int)} whether the children are opening or closing. Handlers should call this
+     * when they start animating the menu.
+     *
+     * @param expanded
+     */
+    protected void setStaggerDirection(boolean expanded) {
+        mStaggerExpanded = expanded;
     }
 
     /**
@@ -171,31 +181,113 @@ public abstract class FloatingButtonAnimationHandlerBase {
      * @param expanded
      * @return
      */
-    private int getTransformedIndex(int actualIndex, int count, boolean expanded) {
-        return expanded ? actualIndex : count - actualIndex - 1;
+    protected int getTransformedIndex(int actualIndex, int count, boolean expanded) {
+        return StaggerTiming.getTransformedIndex(actualIndex, count, expanded);
     }
 
     public void setDuration(long duration) {
         this.duration = duration;
+        mTimeline.setDuration(duration);
+        mFloatingButtonMenu.invalidatePrewarm();
     }
 
     public void setStartOffsetBetweenEachChild(long startOffsetBetweenEachChild) {
         this.startOffsetBetweenEachChild = startOffsetBetweenEachChild;
+        mTimeline.setStartOffsetBetweenEachChild(startOffsetBetweenEachChild);
+        mFloatingButtonMenu.invalidatePrewarm();
+    }
+
+    /**
+     * @param staggerScheduler: decides when every child starts, {@link StaggerTiming#LINEAR} when null
+     */
+    public void setStaggerScheduler(StaggerScheduler staggerScheduler) {
+        this.staggerScheduler = staggerScheduler != null ? staggerScheduler : StaggerTiming.LINEAR;
+        mTimeline.setStaggerScheduler(this.staggerScheduler);
+        mFloatingButtonMenu.invalidatePrewarm();
     }
 
     public void setOpenInterpolator(Interpolator interpolator) {
         this.openInterpolator = interpolator;
+        mTimeline.setOpenEasing(interpolator != null ? new InterpolatorEasing(interpolator) : null);
+        mFloatingButtonMenu.invalidatePrewarm();
     }
 
     public void setCloseInterpolator(Interpolator interpolator) {
         this.closeInterpolator = interpolator;
+        mTimeline.setCloseEasing(interpolator != null ? new InterpolatorEasing(interpolator) : null);
+        mFloatingButtonMenu.invalidatePrewarm();
+    }
+
+    public void setUseHardwareLayers(boolean useHardwareLayers) {
+        this.useHardwareLayers = useHardwareLayers;
     }
 
     public boolean isAnimating() {
         return mIsAnimating;
     }
 
-    protected abstract Animation getAnimation(View childView, int index, float degrees, boolean expanded);
+    /**
+     * Returns the properties of the children this handler animates, a combination of
+     * {@link MenuTimeline#PROPERTY_TRANSLATION}, {@link MenuTimeline#PROPERTY_ALPHA} and
+     * {@link MenuTimeline#PROPERTY_ROTATION}.
+     *
+     * @return
+     */
+    public int getAnimatedProperties() {
+        return MenuTimeline.PROPERTY_TRANSLATION;
+    }
+
+    /**
+     * Returns the timeline of this handler, which computes the transforms of the children at any time of a transition
+     * with the same duration, start offsets, interpolators and properties as the animations, without running them.
+     *
+     * @return
+     */
+    public MenuTimeline getTimeline() {
+        mTimeline.setProperties(getAnimatedProperties());
+        return mTimeline;
+    }
+
+    /**
+     * Writes the transforms of every child at the given time of a transition into {@code out}, see
+     * {@link MenuTimeline#evaluate(ArcGeometry, int, int[], boolean, long, float[])}. This doesn't touch the menu or
+     * its children.
+     *
+     * @param geometry:   the arc and child count of the menu
+     * @param radius:     the radius of the arc
+     * @param childSizes: the width and height of every child
+     * @param expanded:   whether the menu is opening or closing
+     * @param time:       time since the transition started, in milliseconds
+     * @param out:        buffer of at least {@code MenuTimeline.STRIDE} floats per child
+     */
+    public void evaluate(ArcGeometry geometry, int radius, int[] childSizes, boolean expanded, long time, float[] out) {
+        getTimeline().evaluate(geometry, radius, childSizes, expanded, time, out);
+    }
+
+    /**
+     * Returns whether this handler animates the translation of the children. When it does, the menu leaves the
+     * translation alone while the handler is animating.
+     *
+     * @return
+     */
+    public boolean animatesChildTranslation() {
+        return false;
+    }
+
+    /**
+     * Returns whether {@link #animateMenu()} can be called again while the handler is animating, in which case the
+     * running transition is turned around from where the children currently are. Handlers that can't do that have the
+     * toggle queued until the running animation ends.
+     *
+     * @return
+     */
+    public boolean isReversible() {
+        return false;
+    }
+
+    protected void setAnimating(boolean animating) {
+        mIsAnimating = animating;
+    }
 
     public abstract static class Builder<T extends Builder, U extends FloatingButtonAnimationHandlerBase> {
         protected FloatingButtonMenu mFloatingButtonMenu;
@@ -203,10 +295,13 @@ public abstract class FloatingButtonAnimationHandlerBase {
         protected long duration;
         protected Interpolator openInterpolator;
         protected Interpolator closeInterpolator;
+        protected boolean useHardwareLayers;
+        protected StaggerScheduler staggerScheduler;
 
         protected Builder(FloatingButtonMenu floatingButtonMenu) {
             mFloatingButtonMenu = floatingButtonMenu;
             startOffsetBetweenEachChild = START_OFFSET_CHILD_DEFAULT;
+            staggerScheduler = StaggerTiming.LINEAR;
             duration = DURATION_DEFAULT;
             openInterpolator = new OvershootInterpolator(1.5f);
             closeInterpolator = new DecelerateInterpolator(1.5f);
@@ -222,6 +317,20 @@ public abstract class FloatingButtonAnimationHandlerBase {
             return (T) this;
         }
 
+        /**
+         * Sets the strategy deciding when every child starts animating, such as {@link StaggerTiming#LINEAR},
+         * {@link StaggerTiming#cappedTotal(long)}, {@link StaggerTiming#easeDistributed(long)} or
+         * {@link StaggerTiming#RING_GROUPED}. The capped and ease distributed schedulers bound the time the menu takes
+         * to open however many children it has.
+         *
+         * @param staggerScheduler
+         * @return
+         */
+        public T setStaggerScheduler(StaggerScheduler staggerScheduler) {
+            this.staggerScheduler = staggerScheduler;
+            return (T) this;
+        }
+
         public T setOpenInterpolator(Interpolator interpolator) {
             this.openInterpolator = interpolator;
             return (T) this;
@@ -232,11 +341,49 @@ public abstract class FloatingButtonAnimationHandlerBase {
             return (T) this;
         }
 
+        /**
+         * Sets the interpolator the children open with.
+         *
+         * @param interpolator
+         * @param useLookupTable: whether the interpolator should be sampled once into a table shared with the other
+         *                        handlers and menus, see {@link LookupTableInterpolator}
+         * @return
+         */
+        public T setOpenInterpolator(Interpolator interpolator, boolean useLookupTable) {
+            return setOpenInterpolator(useLookupTable ? LookupTableInterpolator.of(interpolator) : interpolator);
+        }
+
+        /**
+         * Sets the interpolator the children close with.
+         *
+         * @param interpolator
+         * @param useLookupTable: whether the interpolator should be sampled once into a table shared with the other
+         *                        handlers and menus, see {@link LookupTableInterpolator}
+         * @return
+         */
+        public T setCloseInterpolator(Interpolator interpolator, boolean useLookupTable) {
+            return setCloseInterpolator(useLookupTable ? LookupTableInterpolator.of(interpolator) : interpolator);
+        }
+
+        /**
+         * Whether the animating children should be moved to a hardware layer while they animate. The scrim is drawn by
+         * the menu itself and is never put on a layer.
+         *
+         * @param useHardwareLayers
+         * @return
+         */
+        public T setUseHardwareLayers(boolean useHardwareLayers) {
+            this.useHardwareLayers = useHardwareLayers;
+            return (T) this;
+        }
+
         protected void setCommonProperties(FloatingButtonAnimationHandlerBase animationHandlerBase) {
             animationHandlerBase.setDuration(duration);
             animationHandlerBase.setStartOffsetBetweenEachChild(startOffsetBetweenEachChild);
+            animationHandlerBase.setStaggerScheduler(staggerScheduler);
             animationHandlerBase.setOpenInterpolator(openInterpolator);
             animationHandlerBase.setCloseInterpolator(closeInterpolator);
+            animationHandlerBase.setUseHardwareLayers(useHardwareLayers);
         }
 
         public U build() {
@@ -0,0 +1,22 @@
+package com.floatingbuttonmenu.animation;
+
+import android.view.animation.Interpolator;
+
+import com.floatingbuttonmenu.core.MenuTimeline;
+
+/**
+ * Hands the interpolator of an animation handler to its {@link MenuTimeline}, which doesn't know about android classes.
+ */
+class InterpolatorEasing implements MenuTimeline.Easing {
+
+    private final Interpolator mInterpolator;
+
+    InterpolatorEasing(Interpolator interpolator) {
+        mInterpolator = interpolator;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        return mInterpolator.getInterpolation(input);
+    }
+}
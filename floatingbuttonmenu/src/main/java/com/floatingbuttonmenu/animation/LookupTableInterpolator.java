@@ -0,0 +1,61 @@
+package com.floatingbuttonmenu.animation;
+
+import android.util.LruCache;
+import android.view.animation.Interpolator;
+
+import com.floatingbuttonmenu.core.InterpolationTable;
+
+/**
+ * <p>An interpolator that evaluates another interpolator through a table sampled from it once, see
+ * {@link InterpolationTable}. Every child evaluates the interpolator on every frame, so this keeps expensive
+ * interpolators, such as path based or custom ones, from being evaluated over and over with close inputs.</p>
+ * <p/>
+ * <p>The tables are shared process wide: interpolators that sample to the same table, e.g. two
+ * OvershootInterpolators with the same tension used by different handlers or menus, end up using a single table.</p>
+ */
+public final class LookupTableInterpolator implements Interpolator {
+
+    /**
+     * Number of distinct tables kept for sharing.
+     */
+    private static final int MAX_SHARED_TABLES = 32;
+
+    private static final LruCache<InterpolationTable, InterpolationTable> sTables =
+            new LruCache<InterpolationTable, InterpolationTable>(MAX_SHARED_TABLES);
+
+    private final InterpolationTable mTable;
+
+    private LookupTableInterpolator(InterpolationTable table) {
+        mTable = table;
+    }
+
+    /**
+     * Returns an interpolator that evaluates the given one through a shared lookup table.
+     *
+     * @param interpolator: the interpolator to sample, returned as is if it already is a lookup table
+     * @return
+     */
+    public static Interpolator of(Interpolator interpolator) {
+        if (interpolator == null || interpolator instanceof LookupTableInterpolator) {
+            return interpolator;
+        }
+
+        InterpolationTable table = InterpolationTable.sample(new InterpolatorEasing(interpolator),
+                InterpolationTable.DEFAULT_SEGMENTS);
+        return new LookupTableInterpolator(share(table));
+    }
+
+    private static synchronized InterpolationTable share(InterpolationTable table) {
+        InterpolationTable sharedTable = sTables.get(table);
+        if (sharedTable == null) {
+            sTables.put(table, table);
+            sharedTable = table;
+        }
+        return sharedTable;
+    }
+
+    @Override
+    public float getInterpolation(float input) {
+        return mTable.getInterpolation(input);
+    }
+}
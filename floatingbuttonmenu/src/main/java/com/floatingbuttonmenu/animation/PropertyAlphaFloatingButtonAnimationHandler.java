@@ -0,0 +1,25 @@
+package com.floatingbuttonmenu.animation;
+
+import com.floatingbuttonmenu.FloatingButtonMenu;
+
+/**
+ * Property animation counterpart of {@link AlphaFloatingButtonAnimationHandler}, fades the children in and out.
+ */
+public class PropertyAlphaFloatingButtonAnimationHandler extends PropertyFloatingButtonAnimationHandlerBase {
+
+    protected PropertyAlphaFloatingButtonAnimationHandler(FloatingButtonMenu floatingButtonMenu) {
+        super(floatingButtonMenu, PROPERTY_ALPHA);
+    }
+
+    public static class Builder extends FloatingButtonAnimationHandlerBase.Builder<Builder, PropertyAlphaFloatingButtonAnimationHandler> {
+
+        public Builder(FloatingButtonMenu floatingButtonMenu) {
+            super(floatingButtonMenu);
+        }
+
+        @Override
+        protected FloatingButtonAnimationHandlerBase makeAndSetSpecialProperties() {
+            return new PropertyAlphaFloatingButtonAnimationHandler(mFloatingButtonMenu);
+        }
+    }
+}
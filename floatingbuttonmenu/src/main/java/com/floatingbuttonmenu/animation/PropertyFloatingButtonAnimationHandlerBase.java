@@ -0,0 +1,429 @@
+package com.floatingbuttonmenu.animation;
+
+import android.animation.Animator;
+import android.animation.AnimatorListenerAdapter;
+import android.animation.ValueAnimator;
+import android.graphics.Point;
+import android.view.View;
+import android.view.animation.Animation;
+import android.view.animation.Interpolator;
+import android.view.animation.LinearInterpolator;
+
+import com.floatingbuttonmenu.FloatingButtonMenu;
+import com.floatingbuttonmenu.core.ArcGeometry;
+import com.floatingbuttonmenu.core.MenuTimeline;
+
+/**
+ * <p>Base class for animation handlers that animate the children through their render properties (translationX/Y,
+ * alpha and rotation) instead of building view {@link Animation}s.</p>
+ * <p/>
+ * <p>The whole menu is driven by a single {@link ValueAnimator} that is created once and reused for every toggle. On
+ * every frame the progress of each child is worked out from the elapsed time of that one clock and the child's start
+ * offset, and all the children are updated in a single pass. The menu therefore finishes animating at exactly one
+ * point, when the clock ends. Since only render properties change, the parent doesn't have to be invalidated on every
+ * frame when hardware acceleration is on.</p>
+ * <p/>
+ * <p>Toggling the menu while it animates reverses the transition: children that are moving head back from where they
+ * are, over the part of the duration they've covered so far, and children that haven't started moving yet are settled
+ * right away.</p>
+ */
+public abstract class PropertyFloatingButtonAnimationHandlerBase extends FloatingButtonAnimationHandlerBase {
+
+    protected static final int PROPERTY_TRANSLATION = MenuTimeline.PROPERTY_TRANSLATION;
+    protected static final int PROPERTY_ALPHA = MenuTimeline.PROPERTY_ALPHA;
+    protected static final int PROPERTY_ROTATION = MenuTimeline.PROPERTY_ROTATION;
+
+    /*
+    Where a child is in the current transition.
+     */
+    private static final int CHILD_SETTLED = 0;
+    private static final int CHILD_WAITING = 1;
+    private static final int CHILD_MOVING = 2;
+
+    private final int mProperties;
+
+    private final ValueAnimator mClock;
+    private final ClockListener mClockListener = new ClockListener();
+    private long mClockDuration;
+    private boolean mExpanded;
+
+    /*
+    The state of every child in the current transition, indexed by the child's position on the arc. The arrays only
+    grow, so toggling the menu doesn't allocate once they fit the children.
+     */
+    private View[] mChildViews = new View[0];
+    private int[] mChildStates = new int[0];
+    private long[] mChildDelays = new long[0];
+    private long[] mChildDurations = new long[0];
+    private float[] mFromTranslationX = new float[0];
+    private float[] mToTranslationX = new float[0];
+    private float[] mFromTranslationY = new float[0];
+    private float[] mToTranslationY = new float[0];
+    private float[] mFromAlpha = new float[0];
+    private float[] mToAlpha = new float[0];
+    private float[] mFromRotation = new float[0];
+    private float[] mToRotation = new float[0];
+    private int mChildCount;
+
+    private final int[] mStartFrame = new int[ArcGeometry.FRAME_SIZE];
+    private final int[] mEndFrame = new int[ArcGeometry.FRAME_SIZE];
+
+    /**
+     * @param floatingButtonMenu
+     * @param properties:        the properties animated by this handler, a combination of {@link #PROPERTY_TRANSLATION},
+     *                           {@link #PROPERTY_ALPHA} and {@link #PROPERTY_ROTATION}
+     */
+    protected PropertyFloatingButtonAnimationHandlerBase(FloatingButtonMenu floatingButtonMenu, int properties) {
+        super(floatingButtonMenu);
+        mProperties = properties;
+
+        /*
+        The clock only measures time, every child applies its own interpolator to its share of it.
+         */
+        mClock = ValueAnimator.ofFloat(0.0f, 1.0f);
+        mClock.setInterpolator(new LinearInterpolator());
+        mClock.addUpdateListener(mClockListener);
+        mClock.addListener(mClockListener);
+    }
+
+    @Override
+    public void animateMenu() {
+        final int count = mFloatingButtonMenu.getMenuChildCount();
+        final boolean expanded = mFloatingButtonMenu.isExpanded();
+        final boolean reversing = isAnimating();
+
+        /*
+        The time the running transition has reached, which every child that's picked up from where it is works from.
+         */
+        final long elapsed = reversing ? (long) (mClock.getAnimatedFraction() * mClockDuration) : 0;
+        if (reversing) {
+            mClockListener.mIgnoreEnd = true;
+            mClock.cancel();
+            mClockListener.mIgnoreEnd = false;
+        }
+
+        mFloatingButtonMenu.getArcGeometry().setChildCount(count);
+        setStaggerDirection(expanded);
+        ensureChildState(count);
+
+        setAnimating(true);
+        startFrameTiming(count);
+
+        /*
+        When an interrupted close is reversed the background hasn't started fading out yet, so it's left as it is.
+         */
+        if (expanded && !reversing) {
+            handleBackgroundView(expanded);
+        }
+
+        mExpanded = expanded;
+
+        long clockDuration = 0;
+        for (int i = 0; i < count; i++) {
+            final View childView = mFloatingButtonMenu.getMenuChildAt(i);
+            final int transformedIndex = getTransformedIndex(i, count, expanded);
+
+            /*
+            A child that was left behind by a removal may still hold a state from the running transition.
+             */
+            final int previousState = i < mChildCount && mChildViews[i] == childView ? mChildStates[i] : CHILD_SETTLED;
+
+            mChildViews[i] = childView;
+            if (previousState == CHILD_WAITING) {
+                settleChild(i, childView, expanded);
+                continue;
+            }
+
+            final boolean interrupted = previousState == CHILD_MOVING;
+            startChild(i, childView, transformedIndex, expanded, interrupted, elapsed);
+            clockDuration = Math.max(clockDuration, mChildDelays[i] + mChildDurations[i]);
+        }
+        for (int i = count; i < mChildCount; i++) {
+            mChildViews[i] = null;
+        }
+        mChildCount = count;
+
+        if (clockDuration == 0) {
+            onMenuAnimationEnd(expanded);
+            return;
+        }
+
+        mClockDuration = clockDuration;
+        mClock.setDuration(clockDuration);
+        mClock.start();
+    }
+
+    /**
+     * There are no animations to build, only the state of the children is grown to fit them.
+     */
+    @Override
+    public void prewarm() {
+        if (isAnimating() || mFloatingButtonMenu.isExpanded()) {
+            return;
+        }
+
+        final int count = mFloatingButtonMenu.getMenuChildCount();
+        mFloatingButtonMenu.getArcGeometry().setChildCount(count);
+        ensureChildState(count);
+    }
+
+    @Override
+    public boolean isReversible() {
+        return true;
+    }
+
+    @Override
+    public int getAnimatedProperties() {
+        return mProperties;
+    }
+
+    @Override
+    public boolean animatesChildTranslation() {
+        return hasProperty(PROPERTY_TRANSLATION);
+    }
+
+    private boolean hasProperty(int property) {
+        return (mProperties & property) != 0;
+    }
+
+    private void ensureChildState(int count) {
+        if (mChildStates.length >= count) {
+            return;
+        }
+
+        mChildViews = copyOf(mChildViews, count);
+        mChildStates = copyOf(mChildStates, count);
+        mChildDelays = copyOf(mChildDelays, count);
+        mChildDurations = copyOf(mChildDurations, count);
+        mFromTranslationX = copyOf(mFromTranslationX, count);
+        mToTranslationX = copyOf(mToTranslationX, count);
+        mFromTranslationY = copyOf(mFromTranslationY, count);
+        mToTranslationY = copyOf(mToTranslationY, count);
+        mFromAlpha = copyOf(mFromAlpha, count);
+        mToAlpha = copyOf(mToAlpha, count);
+        mFromRotation = copyOf(mFromRotation, count);
+        mToRotation = copyOf(mToRotation, count);
+    }
+
+    /**
+     * Sets up the transition of a single child and applies its first values right away, so that it doesn't jump to
+     * its final position while it waits for its start offset.
+     *
+     * @param interrupted: whether the child was moving the other way, in which case it heads back from where it is,
+     *                     without a start offset and over the part of the duration it had covered
+     * @param elapsed:     the time the interrupted transition had reached
+     */
+    private void startChild(int i, View childView, int index, boolean expanded, boolean interrupted, long elapsed) {
+        if (interrupted) {
+            final float coveredFraction = Math.min(1.0f, (elapsed - mChildDelays[i]) / (float) mChildDurations[i]);
+            mChildDelays[i] = 0;
+            mChildDurations[i] = Math.max(1, (long) (duration * coveredFraction));
+        } else {
+            mChildDelays[i] = getChildStartOffset(index);
+            mChildDurations[i] = Math.max(1, duration);
+        }
+
+        if (hasProperty(PROPERTY_TRANSLATION)) {
+            computeTranslation(i, childView, expanded, interrupted);
+            childView.setTranslationX(mFromTranslationX[i]);
+            childView.setTranslationY(mFromTranslationY[i]);
+        }
+        if (hasProperty(PROPERTY_ALPHA)) {
+            mFromAlpha[i] = interrupted ? childView.getAlpha() : (expanded ? 0.0f : 1.0f);
+            mToAlpha[i] = expanded ? 1.0f : 0.0f;
+            childView.setAlpha(mFromAlpha[i]);
+        }
+        if (hasProperty(PROPERTY_ROTATION)) {
+            /*
+            An interrupted spin unwinds back to where it started.
+             */
+            mFromRotation[i] = interrupted ? childView.getRotation() : 0.0f;
+            mToRotation[i] = interrupted ? 0.0f : MenuTimeline.ROTATION_DEGREES;
+            childView.setRotation(mFromRotation[i]);
+        }
+
+        mChildStates[i] = interrupted ? CHILD_MOVING : CHILD_WAITING;
+    }
+
+    /**
+     * The child is laid out at its final position once the menu changes state, or at the center when the menu
+     * positions its children by translation, so it is translated from where it currently is to its final position
+     * relative to that layout position. An opening child starts from the center unless it's picked up from where an
+     * interrupted transition left it.
+     */
+    private void computeTranslation(int i, View childView, boolean expanded, boolean fromCurrent) {
+        final Point center = mFloatingButtonMenu.getFloatingButtonCenter();
+        final ArcGeometry arcGeometry = mFloatingButtonMenu.getArcGeometry();
+        final int radius = mFloatingButtonMenu.getRadius();
+        final int childWidth = childView.getMeasuredWidth();
+        final int childHeight = childView.getMeasuredHeight();
+
+        float fromX;
+        float fromY;
+        if (expanded && !fromCurrent) {
+            arcGeometry.computeChildFrame(i, center.x, center.y, 0, childWidth, childHeight, mStartFrame, 0);
+            fromX = mStartFrame[ArcGeometry.LEFT];
+            fromY = mStartFrame[ArcGeometry.TOP];
+        } else {
+            fromX = childView.getLeft() + childView.getTranslationX();
+            fromY = childView.getTop() + childView.getTranslationY();
+        }
+
+        arcGeometry.computeChildFrame(i, center.x, center.y, expanded ? radius : 0, childWidth, childHeight, mEndFrame, 0);
+        float toX = mEndFrame[ArcGeometry.LEFT];
+        float toY = mEndFrame[ArcGeometry.TOP];
+
+        if (mFloatingButtonMenu.isPositionedByTranslation()) {
+            fromX -= childView.getLeft();
+            fromY -= childView.getTop();
+            toX -= childView.getLeft();
+            toY -= childView.getTop();
+        } else {
+            fromX -= toX;
+            fromY -= toY;
+            toX = 0.0f;
+            toY = 0.0f;
+        }
+
+        mFromTranslationX[i] = fromX;
+        mFromTranslationY[i] = fromY;
+        mToTranslationX[i] = toX;
+        mToTranslationY[i] = toY;
+    }
+
+    /**
+     * Applies the values of every child for the given time of the clock, in a single pass.
+     *
+     * @param elapsed: time since the clock started, in milliseconds
+     */
+    private void applyFrame(long elapsed) {
+        final boolean expanded = mExpanded;
+        final Interpolator interpolator = expanded ? openInterpolator : closeInterpolator;
+        final boolean translation = hasProperty(PROPERTY_TRANSLATION);
+        final boolean alpha = hasProperty(PROPERTY_ALPHA);
+        final boolean rotation = hasProperty(PROPERTY_ROTATION);
+
+        for (int i = 0, count = mChildCount; i < count; i++) {
+            final int state = mChildStates[i];
+            if (state == CHILD_SETTLED) {
+                continue;
+            }
+
+            final long childTime = elapsed - mChildDelays[i];
+            if (childTime < 0) {
+                continue;
+            }
+
+            final View childView = mChildViews[i];
+            if (state == CHILD_WAITING) {
+                mChildStates[i] = CHILD_MOVING;
+                if (expanded) {
+                    childView.setVisibility(View.VISIBLE);
+                }
+                if (useHardwareLayers) {
+                    startHardwareLayer(childView);
+                }
+            }
+
+            if (childTime >= mChildDurations[i]) {
+                settleChild(i, childView, expanded);
+                continue;
+            }
+
+            final float fraction = interpolator.getInterpolation(childTime / (float) mChildDurations[i]);
+            if (translation) {
+                childView.setTranslationX(mFromTranslationX[i] + (mToTranslationX[i] - mFromTranslationX[i]) * fraction);
+                childView.setTranslationY(mFromTranslationY[i] + (mToTranslationY[i] - mFromTranslationY[i]) * fraction);
+            }
+            if (alpha) {
+                childView.setAlpha(mFromAlpha[i] + (mToAlpha[i] - mFromAlpha[i]) * fraction);
+            }
+            if (rotation) {
+                childView.setRotation(mFromRotation[i] + (mToRotation[i] - mFromRotation[i]) * fraction);
+            }
+        }
+    }
+
+    /**
+     * Leaves the child at rest in the given state.
+     */
+    private void settleChild(int i, View childView, boolean expanded) {
+        mChildStates[i] = CHILD_SETTLED;
+
+        if (hasProperty(PROPERTY_TRANSLATION)) {
+            computeTranslation(i, childView, expanded, true);
+            childView.setTranslationX(mToTranslationX[i]);
+            childView.setTranslationY(mToTranslationY[i]);
+        }
+        if (expanded) {
+            childView.setAlpha(1.0f);
+        } else {
+            childView.setVisibility(View.INVISIBLE);
+            /*
+            Leave the child in a neutral state so that switching to a view animation handler still works.
+             */
+            childView.setAlpha(1.0f);
+        }
+        childView.setRotation(0.0f);
+        endHardwareLayer(childView);
+    }
+
+    private void onClockEnd() {
+        for (int i = 0, count = mChildCount; i < count; i++) {
+            if (mChildStates[i] != CHILD_SETTLED) {
+                settleChild(i, mChildViews[i], mExpanded);
+            }
+        }
+
+        onMenuAnimationEnd(mExpanded);
+    }
+
+    private static View[] copyOf(View[] array, int length) {
+        View[] copy = new View[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private static int[] copyOf(int[] array, int length) {
+        int[] copy = new int[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private static long[] copyOf(long[] array, int length) {
+        long[] copy = new long[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    private static float[] copyOf(float[] array, int length) {
+        float[] copy = new float[length];
+        System.arraycopy(array, 0, copy, 0, array.length);
+        return copy;
+    }
+
+    /**
+     * Listens to the clock of the menu. Every frame is turned into the values of all the children at once, and the end
+     * of the clock is the single point where the menu finishes animating.
+     */
+    private class ClockListener extends AnimatorListenerAdapter implements ValueAnimator.AnimatorUpdateListener {
+        private boolean mIgnoreEnd;
+
+        @Override
+        public void onAnimationUpdate(ValueAnimator animation) {
+            /*
+            The fraction rather than the play time, so that the animator duration scale is taken into account.
+             */
+            applyFrame((long) (animation.getAnimatedFraction() * mClockDuration));
+        }
+
+        @Override
+        public void onAnimationEnd(Animator animation) {
+            if (mIgnoreEnd) {
+                return;
+            }
+
+            onClockEnd();
+        }
+    }
+}
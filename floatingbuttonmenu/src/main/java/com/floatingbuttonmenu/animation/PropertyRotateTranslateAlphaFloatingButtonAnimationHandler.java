@@ -0,0 +1,29 @@
+package com.floatingbuttonmenu.animation;
+
+import com.floatingbuttonmenu.FloatingButtonMenu;
+
+/**
+ * Property animation counterpart of {@link RotateTranslateAlphaFloatingButtonAnimationHandler}, spins and fades the children while moving them along the arc.
+ */
+public class PropertyRotateTranslateAlphaFloatingButtonAnimationHandler extends PropertyFloatingButtonAnimationHandlerBase {
+
+    protected PropertyRotateTranslateAlphaFloatingButtonAnimationHandler(FloatingButtonMenu floatingButtonMenu) {
+        super(floatingButtonMenu, PROPERTY_ROTATION | PROPERTY_TRANSLATION | PROPERTY_ALPHA);
+    }
+
+    public static class Builder extends FloatingButtonAnimationHandlerBase.Builder<Builder, PropertyRotateTranslateAlphaFloatingButtonAnimationHandler> {
+
+        public Builder(FloatingButtonMenu floatingButtonMenu) {
+            super(floatingButtonMenu);
+            /*
+            The rotation re-rasterizes the children on every frame, so they are drawn from a hardware layer by default.
+             */
+            useHardwareLayers = true;
+        }
+
+        @Override
+        protected FloatingButtonAnimationHandlerBase makeAndSetSpecialProperties() {
+            return new PropertyRotateTranslateAlphaFloatingButtonAnimationHandler(mFloatingButtonMenu);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.floatingbuttonmenu.animation;
+
+import com.floatingbuttonmenu.FloatingButtonMenu;
+
+/**
+ * Property animation counterpart of {@link RotateTranslateFloatingButtonAnimationHandler}, spins the children while moving them along the arc.
+ */
+public class PropertyRotateTranslateFloatingButtonAnimationHandler extends PropertyFloatingButtonAnimationHandlerBase {
+
+    protected PropertyRotateTranslateFloatingButtonAnimationHandler(FloatingButtonMenu floatingButtonMenu) {
+        super(floatingButtonMenu, PROPERTY_ROTATION | PROPERTY_TRANSLATION);
+    }
+
+    public static class Builder extends FloatingButtonAnimationHandlerBase.Builder<Builder, PropertyRotateTranslateFloatingButtonAnimationHandler> {
+
+        public Builder(FloatingButtonMenu floatingButtonMenu) {
+            super(floatingButtonMenu);
+            /*
+            The rotation re-rasterizes the children on every frame, so they are drawn from a hardware layer by default.
+             */
+            useHardwareLayers = true;
+        }
+
+        @Override
+        protected FloatingButtonAnimationHandlerBase makeAndSetSpecialProperties() {
+            return new PropertyRotateTranslateFloatingButtonAnimationHandler(mFloatingButtonMenu);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.floatingbuttonmenu.animation;
+
+import com.floatingbuttonmenu.FloatingButtonMenu;
+
+/**
+ * Property animation counterpart of {@link TranslateAlphaFloatingButtonAnimationHandler}, moves the children along the arc while fading them.
+ */
+public class PropertyTranslateAlphaFloatingButtonAnimationHandler extends PropertyFloatingButtonAnimationHandlerBase {
+
+    protected PropertyTranslateAlphaFloatingButtonAnimationHandler(FloatingButtonMenu floatingButtonMenu) {
+        super(floatingButtonMenu, PROPERTY_TRANSLATION | PROPERTY_ALPHA);
+    }
+
+    public static class Builder extends FloatingButtonAnimationHandlerBase.Builder<Builder, PropertyTranslateAlphaFloatingButtonAnimationHandler> {
+
+        public Builder(FloatingButtonMenu floatingButtonMenu) {
+            super(floatingButtonMenu);
+        }
+
+        @Override
+        protected FloatingButtonAnimationHandlerBase makeAndSetSpecialProperties() {
+            return new PropertyTranslateAlphaFloatingButtonAnimationHandler(mFloatingButtonMenu);
+        }
+    }
+}
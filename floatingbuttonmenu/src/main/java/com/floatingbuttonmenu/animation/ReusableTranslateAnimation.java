@@ -0,0 +1,35 @@
+package com.floatingbuttonmenu.animation;
+
+import android.view.animation.Animation;
+import android.view.animation.Transformation;
+
+/**
+ * A translate animation with absolute deltas that can be changed after it's been created, so the same instance can be
+ * reused every time the menu is toggled.
+ */
+class ReusableTranslateAnimation extends Animation {
+
+    private float mFromXDelta;
+    private float mToXDelta;
+    private float mFromYDelta;
+    private float mToYDelta;
+
+    ReusableTranslateAnimation(float fromXDelta, float toXDelta, float fromYDelta, float toYDelta) {
+        setDeltas(fromXDelta, toXDelta, fromYDelta, toYDelta);
+    }
+
+    void setDeltas(float fromXDelta, float toXDelta, float fromYDelta, float toYDelta) {
+        mFromXDelta = fromXDelta;
+        mToXDelta = toXDelta;
+        mFromYDelta = fromYDelta;
+        mToYDelta = toYDelta;
+    }
+
+    @Override
+    protected void applyTransformation(float interpolatedTime, Transformation t) {
+        float dx = mFromXDelta + ((mToXDelta - mFromXDelta) * interpolatedTime);
+        float dy = mFromYDelta + ((mToYDelta - mFromYDelta) * interpolatedTime);
+
+        t.getMatrix().setTranslate(dx, dy);
+    }
+}
@@ -5,19 +5,25 @@ import android.view.animation.Animation;
 import android.view.animation.AnimationSet;
 
 import com.floatingbuttonmenu.FloatingButtonMenu;
+import com.floatingbuttonmenu.core.MenuTimeline;
 
-public class RotateTranslateAlphaFloatingButtonAnimationHandler extends FloatingButtonAnimationHandlerBase {
+public class RotateTranslateAlphaFloatingButtonAnimationHandler extends ViewAnimationFloatingButtonAnimationHandlerBase {
 
     protected RotateTranslateAlphaFloatingButtonAnimationHandler(FloatingButtonMenu floatingButtonMenu) {
         super(floatingButtonMenu);
     }
 
     @Override
-    protected Animation getAnimation(View childView, int index, float degrees, boolean expanded) {
+    public int getAnimatedProperties() {
+        return MenuTimeline.PROPERTY_ROTATION | MenuTimeline.PROPERTY_TRANSLATION | MenuTimeline.PROPERTY_ALPHA;
+    }
+
+    @Override
+    protected Animation getAnimation(View childView, int index, int arcIndex, boolean expanded) {
         AnimationSet animationSet = new AnimationSet(true);
 
         Animation rotateAnimation = getRotateAnimation();
-        Animation translateAnimation = getTranslateAnimation(childView, degrees, expanded);
+        Animation translateAnimation = getTranslateAnimation(childView, arcIndex, expanded);
         Animation alphaAnimation = getAlphaAnimation(expanded);
 
         animationSet.addAnimation(rotateAnimation);
@@ -35,6 +41,10 @@ public class RotateTranslateAlphaFloatingButtonAnimationHandler extends Floating
 
         public Builder(FloatingButtonMenu floatingButtonMenu) {
             super(floatingButtonMenu);
+            /*
+            The rotation re-rasterizes the children on every frame, so they are drawn from a hardware layer by default.
+             */
+            useHardwareLayers = true;
         }
 
         @Override
@@ -5,17 +5,23 @@ import android.view.animation.Animation;
 import android.view.animation.AnimationSet;
 
 import com.floatingbuttonmenu.FloatingButtonMenu;
+import com.floatingbuttonmenu.core.MenuTimeline;
 
-public class RotateTranslateFloatingButtonAnimationHandler extends FloatingButtonAnimationHandlerBase {
+public class RotateTranslateFloatingButtonAnimationHandler extends ViewAnimationFloatingButtonAnimationHandlerBase {
 
     protected RotateTranslateFloatingButtonAnimationHandler(FloatingButtonMenu floatingButtonMenu) {
         super(floatingButtonMenu);
     }
 
     @Override
-    protected Animation getAnimation(View childView, int index, float degrees, boolean expanded) {
+    public int getAnimatedProperties() {
+        return MenuTimeline.PROPERTY_ROTATION | MenuTimeline.PROPERTY_TRANSLATION;
+    }
+
+    @Override
+    protected Animation getAnimation(View childView, int index, int arcIndex, boolean expanded) {
         AnimationSet animationSet = new AnimationSet(true);
-        Animation translateAnimation = getTranslateAnimation(childView, degrees, expanded);
+        Animation translateAnimation = getTranslateAnimation(childView, arcIndex, expanded);
 
         Animation rotateAnimation = getRotateAnimation();
 
@@ -34,6 +40,10 @@ public class RotateTranslateFloatingButtonAnimationHandler extends FloatingButto
 
         public Builder(FloatingButtonMenu floatingButtonMenu) {
             super(floatingButtonMenu);
+            /*
+            The rotation re-rasterizes the children on every frame, so they are drawn from a hardware layer by default.
+             */
+            useHardwareLayers = true;
         }
 
         @Override
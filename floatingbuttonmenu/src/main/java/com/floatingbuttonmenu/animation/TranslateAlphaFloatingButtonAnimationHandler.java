@@ -5,18 +5,24 @@ import android.view.animation.Animation;
 import android.view.animation.AnimationSet;
 
 import com.floatingbuttonmenu.FloatingButtonMenu;
+import com.floatingbuttonmenu.core.MenuTimeline;
 
-public class TranslateAlphaFloatingButtonAnimationHandler extends FloatingButtonAnimationHandlerBase {
+public class TranslateAlphaFloatingButtonAnimationHandler extends ViewAnimationFloatingButtonAnimationHandlerBase {
 
     protected TranslateAlphaFloatingButtonAnimationHandler(FloatingButtonMenu floatingButtonMenu) {
         super(floatingButtonMenu);
     }
 
     @Override
-    protected Animation getAnimation(View childView, int index, float degrees, boolean expanded) {
+    public int getAnimatedProperties() {
+        return MenuTimeline.PROPERTY_TRANSLATION | MenuTimeline.PROPERTY_ALPHA;
+    }
+
+    @Override
+    protected Animation getAnimation(View childView, int index, int arcIndex, boolean expanded) {
         AnimationSet animationSet = new AnimationSet(true);
 
-        Animation translateAnimation = getTranslateAnimation(childView, degrees, expanded);
+        Animation translateAnimation = getTranslateAnimation(childView, arcIndex, expanded);
         Animation alphaAnimation = getAlphaAnimation(expanded);
 
         animationSet.addAnimation(translateAnimation);
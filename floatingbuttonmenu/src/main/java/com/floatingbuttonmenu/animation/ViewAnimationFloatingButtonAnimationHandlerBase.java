@@ -0,0 +1,320 @@
+package com.floatingbuttonmenu.animation;
+
+import android.graphics.Point;
+import android.view.View;
+import android.view.animation.AlphaAnimation;
+import android.view.animation.Animation;
+import android.view.animation.AnimationSet;
+import android.view.animation.RotateAnimation;
+
+import com.floatingbuttonmenu.FloatingButtonMenu;
+import com.floatingbuttonmenu.core.ArcGeometry;
+import com.floatingbuttonmenu.core.MenuTimeline;
+
+import java.util.List;
+
+/**
+ * <p>Base class for animation handlers that animate every child with a view {@link Animation}, built by
+ * {@link #getAnimation(View, int, int, boolean)}.</p>
+ * <p/>
+ * <p>The animations are pooled, one open and one close animation per child, and updated in place on every toggle, so
+ * toggling the menu doesn't allocate once the pool fits the children. The menu finishes animating when the last child
+ * to start does.</p>
+ */
+public abstract class ViewAnimationFloatingButtonAnimationHandlerBase extends FloatingButtonAnimationHandlerBase {
+
+    /*
+    Scratch buffer for the child frames computed while building the translate animations.
+     */
+    private final int[] mChildFrame = new int[ArcGeometry.FRAME_SIZE];
+    private final int[] mTranslateDelta = new int[2];
+
+    /*
+    One open and one close animation per child, indexed by the child's position on the arc. They are built once and
+    updated in place on every toggle.
+     */
+    private Animation[] mOpenAnimations;
+    private Animation[] mCloseAnimations;
+    private float mPoolFromDegrees;
+    private float mPoolToDegrees;
+    private ChildAnimationListener[] mChildAnimationListeners = new ChildAnimationListener[0];
+
+    protected ViewAnimationFloatingButtonAnimationHandlerBase(FloatingButtonMenu floatingButtonMenu) {
+        super(floatingButtonMenu);
+    }
+
+    @Override
+    public void animateMenu() {
+        setAnimating(true);
+
+        final int count = mFloatingButtonMenu.getMenuChildCount();
+        final boolean expanded = mFloatingButtonMenu.isExpanded();
+
+        /*
+        The layout pass that places the children for the new state happens after this, so make sure the geometry
+        already knows about the current child count.
+         */
+        mFloatingButtonMenu.getArcGeometry().setChildCount(count);
+        setStaggerDirection(expanded);
+
+        /*
+        Without children no animation would ever end, so the transition ends right away.
+         */
+        if (count == 0) {
+            if (expanded) {
+                handleBackgroundView(expanded);
+            }
+            onMenuAnimationEnd(expanded);
+            return;
+        }
+
+        startFrameTiming(count);
+        ensureAnimationPool(count);
+
+        for (int i = 0; i < count; i++) {
+            final View childView = mFloatingButtonMenu.getMenuChildAt(i);
+
+            int transformedIndex = getTransformedIndex(i, count, expanded);
+
+            Animation animation = obtainAnimation(childView, transformedIndex, i, expanded);
+
+            final boolean lastItem = transformedIndex == count - 1;
+            final boolean firstItem = transformedIndex == 0;
+
+
+            /*
+            We want the background to be visible when the view is opening and we are about to animate
+            the first item.
+             */
+            if (firstItem && expanded) {
+                handleBackgroundView(expanded);
+            }
+
+            ChildAnimationListener listener = mChildAnimationListeners[i];
+            listener.set(childView, expanded, lastItem);
+            animation.setAnimationListener(listener);
+
+            if (useHardwareLayers) {
+                childView.postDelayed(listener, getChildStartOffset(transformedIndex));
+            }
+
+            childView.setAnimation(animation);
+        }
+    }
+
+    /**
+     * Builds what the next open needs ahead of it, so that it doesn't have to be done on the first frame: the pooled
+     * open animation of every child, with the positions the children have now, which the open updates in place. The
+     * menu calls this while it's closed, see {@link FloatingButtonMenu#prewarm()}. Does nothing while animating.
+     */
+    @Override
+    public void prewarm() {
+        if (isAnimating() || mFloatingButtonMenu.isExpanded()) {
+            return;
+        }
+
+        final int count = mFloatingButtonMenu.getMenuChildCount();
+        mFloatingButtonMenu.getArcGeometry().setChildCount(count);
+        setStaggerDirection(true);
+        ensureAnimationPool(count);
+
+        for (int i = 0; i < count; i++) {
+            obtainAnimation(mFloatingButtonMenu.getMenuChildAt(i), getTransformedIndex(i, count, true), i, true);
+        }
+    }
+
+    /**
+     * Makes sure the pool holds an open and a close slot for every child. The cached animations are dropped when the
+     * number of children or the arc changes, since the start offsets and positions they were built for no longer apply.
+     *
+     * @param count: current number of children
+     */
+    private void ensureAnimationPool(int count) {
+        final float fromDegrees = mFloatingButtonMenu.getFromDegrees();
+        final float toDegrees = mFloatingButtonMenu.getToDegrees();
+
+        if (mOpenAnimations != null && mOpenAnimations.length == count
+                && mPoolFromDegrees == fromDegrees && mPoolToDegrees == toDegrees) {
+            return;
+        }
+
+        mOpenAnimations = new Animation[count];
+        mCloseAnimations = new Animation[count];
+        mPoolFromDegrees = fromDegrees;
+        mPoolToDegrees = toDegrees;
+
+        if (mChildAnimationListeners.length < count) {
+            ChildAnimationListener[] listeners = new ChildAnimationListener[count];
+            System.arraycopy(mChildAnimationListeners, 0, listeners, 0, mChildAnimationListeners.length);
+            for (int i = mChildAnimationListeners.length; i < count; i++) {
+                listeners[i] = new ChildAnimationListener();
+            }
+            mChildAnimationListeners = listeners;
+        }
+    }
+
+    /**
+     * Returns the cached animation for the child, building it with {@link #getAnimation} the first time and updating it
+     * in place with {@link #updateAnimation} after that.
+     */
+    private Animation obtainAnimation(View childView, int index, int arcIndex, boolean expanded) {
+        final Animation[] pool = expanded ? mOpenAnimations : mCloseAnimations;
+
+        Animation animation = pool[arcIndex];
+        if (animation == null) {
+            animation = getAnimation(childView, index, arcIndex, expanded);
+            pool[arcIndex] = animation;
+        } else {
+            updateAnimation(animation, childView, index, arcIndex, expanded);
+        }
+
+        animation.reset();
+        animation.setStartTime(Animation.START_ON_FIRST_FRAME);
+        return animation;
+    }
+
+    /**
+     * Brings a cached animation up to date with the current duration, start offset, interpolator and child position.
+     * Handlers that build animations whose values depend on anything else should override this and update them too.
+     *
+     * @param animation: the animation previously returned by {@link #getAnimation}
+     * @param childView: the child being animated
+     * @param index:     the transformed index of the child, used for the start offset
+     * @param arcIndex:  the index of the child on the arc, used for its position
+     * @param expanded:  whether the menu is opening or closing
+     */
+    protected void updateAnimation(Animation animation, View childView, int index, int arcIndex, boolean expanded) {
+        animation.setDuration(duration);
+        animation.setStartOffset(getChildStartOffset(index));
+        animation.setInterpolator(expanded ? openInterpolator : closeInterpolator);
+
+        if (animation instanceof AnimationSet) {
+            final List<Animation> animations = ((AnimationSet) animation).getAnimations();
+            for (int i = 0, size = animations.size(); i < size; i++) {
+                updateTranslateAnimation(animations.get(i), childView, arcIndex, expanded);
+            }
+        } else {
+            updateTranslateAnimation(animation, childView, arcIndex, expanded);
+        }
+    }
+
+    private void updateTranslateAnimation(Animation animation, View childView, int arcIndex, boolean expanded) {
+        if (!(animation instanceof ReusableTranslateAnimation)) {
+            return;
+        }
+
+        computeTranslateDelta(childView, arcIndex, expanded);
+        ((ReusableTranslateAnimation) animation).setDeltas(mTranslateDelta[0], 0, mTranslateDelta[1], 0);
+    }
+
+    /**
+     * Returns the animation that moves the child between the floating button and its position on the arc.
+     *
+     * @param childView: the child being animated
+     * @param arcIndex:  the index of the child on the arc
+     * @param expanded:  whether the menu is opening or closing
+     * @return
+     */
+    protected Animation getTranslateAnimation(View childView, int arcIndex, boolean expanded) {
+        computeTranslateDelta(childView, arcIndex, expanded);
+
+        return new ReusableTranslateAnimation(mTranslateDelta[0], 0, mTranslateDelta[1], 0);
+    }
+
+    /**
+     * Computes the x and y distance the child is translated from, and stores them in {@link #mTranslateDelta}.
+     */
+    private void computeTranslateDelta(View childView, int arcIndex, boolean expanded) {
+        final Point coor = mFloatingButtonMenu.getFloatingButtonTopCornerCoor();
+        final int xCoor = coor.x;
+        final int yCoor = coor.y;
+
+        final Point center = mFloatingButtonMenu.getFloatingButtonCenter();
+        final int xCenter = center.x;
+        final int yCenter = center.y;
+
+        final int radius = expanded ? mFloatingButtonMenu.getRadius() : 0;
+
+        final int[] childFrame = mChildFrame;
+        mFloatingButtonMenu.getArcGeometry().computeChildFrame(arcIndex, xCenter, yCenter, radius,
+                childView.getMeasuredWidth(), childView.getMeasuredHeight(), childFrame, 0);
+
+        final int childLeft = childFrame[ArcGeometry.LEFT];
+        final int childTop = childFrame[ArcGeometry.TOP];
+
+        /*
+        The translation is included so that the child closes from where it is drawn, which is not its layout position
+        when the menu positions its children by translation.
+         */
+        mTranslateDelta[0] = expanded ? Math.abs(childLeft - xCoor) : (int) (childView.getLeft() + childView.getTranslationX() - childLeft);
+        mTranslateDelta[1] = expanded ? Math.abs(childTop - yCoor) : (int) (childView.getTop() + childView.getTranslationY() - childTop);
+    }
+
+    protected Animation getAlphaAnimation(boolean expanded) {
+        float fromAlpha = expanded ? 0.0f : 1.0f;
+        float toAlpha = expanded ? 1.0f : 0.0f;
+
+        return new AlphaAnimation(fromAlpha, toAlpha);
+    }
+
+    protected Animation getRotateAnimation() {
+        return new RotateAnimation(0.0f, MenuTimeline.ROTATION_DEGREES, RotateAnimation.RELATIVE_TO_SELF, .5f, RotateAnimation.RELATIVE_TO_SELF, .5f);
+    }
+
+    /**
+     * Builds the animation for a single child.
+     *
+     * @param childView: the child being animated
+     * @param index:     the transformed index of the child, used for the start offset
+     * @param arcIndex:  the index of the child on the arc, used for its position
+     * @param expanded:  whether the menu is opening or closing
+     * @return
+     */
+    protected abstract Animation getAnimation(View childView, int index, int arcIndex, boolean expanded);
+
+    /**
+     * Listener attached to the animation of a single child. One instance is kept per child and reused for every toggle.
+     * It is also posted with the child's start offset to move the child to a hardware layer when it starts moving.
+     */
+    private class ChildAnimationListener implements Animation.AnimationListener, Runnable {
+        private View mChildView;
+        private boolean mExpanded;
+        private boolean mLastItem;
+
+        void set(View childView, boolean expanded, boolean lastItem) {
+            mChildView = childView;
+            mExpanded = expanded;
+            mLastItem = lastItem;
+        }
+
+        @Override
+        public void onAnimationStart(Animation animation) {
+            if (mExpanded) {
+                mChildView.setVisibility(View.VISIBLE);
+            }
+        }
+
+        @Override
+        public void run() {
+            startHardwareLayer(mChildView);
+        }
+
+        @Override
+        public void onAnimationEnd(Animation animation) {
+            if (!mExpanded) {
+                mChildView.setVisibility(View.INVISIBLE);
+            }
+            mChildView.removeCallbacks(this);
+            endHardwareLayer(mChildView);
+
+            if (mLastItem) {
+                onMenuAnimationEnd(mExpanded);
+            }
+        }
+
+        @Override
+        public void onAnimationRepeat(Animation animation) {
+
+        }
+    }
+}